@@ -0,0 +1,48 @@
+// Throughput comparison between platform-thread and virtual-thread modes.
+//
+// Start the service once with VIRTUAL_THREADS=false and once with
+// VIRTUAL_THREADS=true, then run for each:
+//
+//   k6 run -e BASE_URL=http://localhost:8000 loadtest/book-list.js
+//
+// and compare http_reqs (throughput) and http_req_duration (p95/p99).
+// The default profile ramps to 1200 concurrent connections, which is well
+// above Tomcat's default 200 worker threads.
+
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8000';
+const VUS = parseInt(__ENV.VUS || '1200', 10);
+
+export const options = {
+    scenarios: {
+        listing: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '30s', target: VUS },
+                { duration: '2m', target: VUS },
+                { duration: '15s', target: 0 },
+            ],
+            gracefulRampDown: '10s',
+        },
+    },
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+    },
+};
+
+export default function () {
+    const page = http.get(`${BASE_URL}/book?size=20&sortBy=rating&orderBy=desc`);
+    check(page, { 'page 200': (r) => r.status === 200 });
+
+    const books = page.status === 200 ? page.json('books') : [];
+    if (books && books.length > 0) {
+        const ids = books.slice(0, 3).map((book) => book.id);
+        const multiple = http.post(`${BASE_URL}/book/get-multiple`,
+            JSON.stringify({ bookIds: ids }),
+            { headers: { 'Content-Type': 'application/json' } });
+        check(multiple, { 'get-multiple 200': (r) => r.status === 200 });
+    }
+}
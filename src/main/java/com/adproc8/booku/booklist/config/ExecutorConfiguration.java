@@ -0,0 +1,37 @@
+package com.adproc8.booku.booklist.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+@Configuration
+class ExecutorConfiguration {
+
+    private final boolean virtualThreads;
+
+    ExecutorConfiguration(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    private ExecutorService executor(String namePrefix, int threads) {
+        if (virtualThreads) {
+            return Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name(namePrefix, 0).factory());
+        }
+        return Executors.newFixedThreadPool(threads, new CustomizableThreadFactory(namePrefix));
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    ExecutorService ratingExecutor(@Value("${rating.executor.threads:4}") int threads) {
+        return executor("rating-", threads);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    ExecutorService fanOutExecutor(@Value("${rating.fan-out.threads:32}") int threads) {
+        return executor("fan-out-", threads);
+    }
+}
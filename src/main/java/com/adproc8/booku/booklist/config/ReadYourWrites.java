@@ -0,0 +1,44 @@
+package com.adproc8.booku.booklist.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Marks the current thread as needing to read from the primary database,
+ * e.g. while handling a write or shortly after the client made one.
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Boolean> primaryRequired = new ThreadLocal<>();
+
+    private ReadYourWrites() {}
+
+    /**
+     * Runs {@code reads} against the primary, whether or not a transaction
+     * is already open. Reads that must not lag behind a published change,
+     * such as cache fills, go through here.
+     */
+    public static <T> T onPrimary(Supplier<T> reads) {
+        if (isPrimaryRequired()) {
+            return reads.get();
+        }
+
+        requirePrimary();
+        try {
+            return reads.get();
+        } finally {
+            clear();
+        }
+    }
+
+    static void requirePrimary() {
+        primaryRequired.set(Boolean.TRUE);
+    }
+
+    public static boolean isPrimaryRequired() {
+        return Boolean.TRUE.equals(primaryRequired.get());
+    }
+
+    static void clear() {
+        primaryRequired.remove();
+    }
+}
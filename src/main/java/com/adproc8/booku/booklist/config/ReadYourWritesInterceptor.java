@@ -0,0 +1,87 @@
+package com.adproc8.booku.booklist.config;
+
+import java.time.Duration;
+import java.util.Set;
+
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Sends the reads of a client to the primary database while it writes and
+ * for a short window afterwards, so that it sees its own changes even when
+ * the replicas lag behind.
+ *
+ * <p>The window is carried by a cookie holding the time until which reads
+ * must go to the primary, so it holds across instances of the service.
+ */
+class ReadYourWritesInterceptor implements HandlerInterceptor {
+
+    static final String COOKIE_NAME = "booku-read-primary-until";
+
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    // POST endpoints that only read, so they neither need the primary nor
+    // open a read-your-writes window.
+    private static final Set<String> READ_ONLY_POSTS = Set.of("/book/get-multiple");
+
+    private final Duration window;
+
+    ReadYourWritesInterceptor(Duration window) {
+        this.window = window;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        long now = System.currentTimeMillis();
+
+        if (isWrite(request)) {
+            ReadYourWrites.requirePrimary();
+
+            Cookie cookie = new Cookie(COOKIE_NAME, Long.toString(now + window.toMillis()));
+            cookie.setMaxAge((int) Math.max(window.toSeconds(), 1));
+            cookie.setHttpOnly(true);
+            cookie.setPath("/");
+            response.addCookie(cookie);
+        } else if (readPrimaryUntil(request) > now) {
+            ReadYourWrites.requirePrimary();
+        }
+
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(
+        HttpServletRequest request, HttpServletResponse response,
+        Object handler, Exception ex)
+    {
+        ReadYourWrites.clear();
+    }
+
+    private static boolean isWrite(HttpServletRequest request) {
+        if (READ_METHODS.contains(request.getMethod())) {
+            return false;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !(request.getMethod().equals("POST") && READ_ONLY_POSTS.contains(path));
+    }
+
+    private static long readPrimaryUntil(HttpServletRequest request) {
+        if (request.getCookies() == null) {
+            return 0;
+        }
+
+        for (Cookie cookie : request.getCookies()) {
+            if (cookie.getName().equals(COOKIE_NAME)) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException ex) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+}
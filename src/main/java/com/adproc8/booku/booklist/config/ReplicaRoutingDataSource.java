@@ -0,0 +1,144 @@
+package com.adproc8.booku.booklist.config;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Spreads read-only connections over the replicas that are keeping up with
+ * the primary, and falls back to the primary when none is or when the
+ * current request must read its own writes.
+ *
+ * <p>Replication lag is measured periodically on each replica. A replica
+ * whose lag exceeds the configured maximum, or that cannot be reached, is
+ * left out until a later check finds it caught up.
+ */
+class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private static final String PRIMARY = "primary";
+
+    // A replica that has replayed everything it received is caught up,
+    // however old its last replayed transaction is.
+    private static final String LAG_SQL = """
+            SELECT CASE
+                WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp())
+            END
+            """;
+
+    private static class Replica {
+
+        final String key;
+        final HikariDataSource dataSource;
+        final JdbcTemplate jdbcTemplate;
+        volatile double lag = Double.NaN;
+
+        Replica(String key, HikariDataSource dataSource) {
+            this.key = key;
+            this.dataSource = dataSource;
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+        }
+    }
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final double maxLagSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile List<String> healthyReplicas = List.of();
+
+    ReplicaRoutingDataSource(
+        DataSource primary, List<HikariDataSource> replicaDataSources,
+        Duration maxLag, MeterRegistry meterRegistry)
+    {
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+
+        for (int i = 0; i < replicaDataSources.size(); i++) {
+            String key = "replica-" + i;
+            HikariDataSource dataSource = replicaDataSources.get(i);
+            Replica replica = new Replica(key, dataSource);
+
+            replicas.add(replica);
+            targets.put(key, dataSource);
+
+            Gauge.builder("datasource.replica.lag", replica, r -> r.lag)
+                    .tag("replica", key)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+
+        Gauge.builder("datasource.replica.healthy", this, source -> source.healthyReplicas.size())
+                .register(meterRegistry);
+
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        List<String> healthy = healthyReplicas;
+
+        if (ReadYourWrites.isPrimaryRequired() || healthy.isEmpty()) {
+            return PRIMARY;
+        }
+
+        return healthy.get(Math.floorMod(next.getAndIncrement(), healthy.size()));
+    }
+
+    @Scheduled(fixedDelayString = "${book.datasource.replica-check-interval-ms:5000}")
+    void checkReplicas() {
+        List<String> healthy = new ArrayList<>();
+
+        for (Replica replica : replicas) {
+            try {
+                Double lag = measureLag(replica.key, replica.jdbcTemplate);
+                double seconds = lag != null ? lag : 0;
+                replica.lag = seconds;
+
+                if (seconds <= maxLagSeconds) {
+                    healthy.add(replica.key);
+                } else {
+                    logger.warn("Replica {} is {}s behind the primary, routing reads elsewhere", replica.key, seconds);
+                }
+            } catch (DataAccessException ex) {
+                replica.lag = Double.NaN;
+                logger.warn("Replica {} is unreachable, routing reads elsewhere: {}", replica.key, ex.getMessage());
+            }
+        }
+
+        healthyReplicas = List.copyOf(healthy);
+    }
+
+    /**
+     * Returns how many seconds the replica is behind the primary.
+     */
+    Double measureLag(String replicaKey, JdbcTemplate jdbcTemplate) throws DataAccessException {
+        return jdbcTemplate.queryForObject(LAG_SQL, Double.class);
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+}
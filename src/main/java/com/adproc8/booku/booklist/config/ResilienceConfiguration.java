@@ -0,0 +1,70 @@
+package com.adproc8.booku.booklist.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+class ResilienceConfiguration {
+
+    private static final String REVIEW = "review";
+
+    @Bean
+    CircuitBreaker reviewCircuitBreaker(
+        MeterRegistry meterRegistry,
+        @Value("${api.review-client.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+        @Value("${api.review-client.circuit-breaker.slow-call-threshold:1s}") Duration slowCallThreshold,
+        @Value("${api.review-client.circuit-breaker.window-size:20}") int windowSize,
+        @Value("${api.review-client.circuit-breaker.minimum-calls:10}") int minimumCalls,
+        @Value("${api.review-client.circuit-breaker.open-duration:10s}") Duration openDuration)
+    {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(slowCallThreshold)
+                .slidingWindowSize(windowSize)
+                .minimumNumberOfCalls(minimumCalls)
+                .waitDurationInOpenState(openDuration)
+                .permittedNumberOfCallsInHalfOpenState(3)
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .recordExceptions(RestClientException.class)
+                .ignoreExceptions(HttpClientErrorException.class)
+                .build();
+
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+
+        return registry.circuitBreaker(REVIEW);
+    }
+
+    @Bean
+    Bulkhead reviewBulkhead(
+        MeterRegistry meterRegistry,
+        @Value("${api.review-client.bulkhead.max-concurrent-calls:25}") int maxConcurrentCalls,
+        @Value("${api.review-client.bulkhead.max-wait:0ms}") Duration maxWait)
+    {
+        BulkheadConfig config = BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(maxWait)
+                .build();
+
+        BulkheadRegistry registry = BulkheadRegistry.of(config);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meterRegistry);
+
+        return registry.bulkhead(REVIEW);
+    }
+}
@@ -1,14 +1,131 @@
 package com.adproc8.booku.booklist.config;
 
+import java.net.URI;
+import java.time.Duration;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultSchemePortResolver;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.routing.RoutingSupport;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+
 @Configuration
 class RestClientConfiguration {
 
+    private final String reviewHost;
+
+    RestClientConfiguration(@Value("${api.review-host}") String reviewHost) {
+        this.reviewHost = reviewHost;
+    }
+
+    @Bean(destroyMethod = "close")
+    PoolingHttpClientConnectionManager reviewConnectionManager(
+        MeterRegistry meterRegistry,
+        @Value("${api.review-client.max-connections:100}") int maxConnections,
+        @Value("${api.review-client.max-connections-per-host:50}") int maxConnectionsPerHost,
+        @Value("${api.review-client.connect-timeout:1s}") Duration connectTimeout,
+        @Value("${api.review-client.response-timeout:2s}") Duration responseTimeout)
+    {
+        PoolingHttpClientConnectionManager connectionManager =
+                PoolingHttpClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(maxConnections)
+                        .setMaxConnPerRoute(maxConnectionsPerHost)
+                        .setDefaultConnectionConfig(ConnectionConfig.custom()
+                                .setConnectTimeout(Timeout.of(connectTimeout))
+                                .setSocketTimeout(Timeout.of(responseTimeout))
+                                .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                                .build())
+                        .build();
+
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "review")
+                .bindTo(meterRegistry);
+        bindRouteMetrics(meterRegistry, connectionManager);
+
+        return connectionManager;
+    }
+
+    private void bindRouteMetrics(
+        MeterRegistry meterRegistry,
+        PoolingHttpClientConnectionManager connectionManager)
+    {
+        // Built the way DefaultRoutePlanner builds it, as the pool keys its
+        // stats by route and a missing port or secure flag matches nothing.
+        HttpHost host = RoutingSupport.normalize(HttpHost.create(URI.create(reviewHost)),
+                DefaultSchemePortResolver.INSTANCE);
+        HttpRoute route = new HttpRoute(host, null, "https".equalsIgnoreCase(host.getSchemeName()));
+        String hostTag = host.toHostString();
+
+        Gauge.builder("http.client.pool.route.leased", connectionManager,
+                        manager -> manager.getStats(route).getLeased())
+                .tag("host", hostTag)
+                .register(meterRegistry);
+        Gauge.builder("http.client.pool.route.available", connectionManager,
+                        manager -> manager.getStats(route).getAvailable())
+                .tag("host", hostTag)
+                .register(meterRegistry);
+        Gauge.builder("http.client.pool.route.pending", connectionManager,
+                        manager -> manager.getStats(route).getPending())
+                .tag("host", hostTag)
+                .register(meterRegistry);
+        Gauge.builder("http.client.pool.route.utilization", connectionManager,
+                        manager -> utilization(manager.getStats(route)))
+                .tag("host", hostTag)
+                .register(meterRegistry);
+    }
+
+    private static double utilization(PoolStats stats) {
+        return stats.getMax() > 0 ? (double) stats.getLeased() / stats.getMax() : 0;
+    }
+
+    @Bean(destroyMethod = "close")
+    CloseableHttpClient reviewHttpClient(
+        PoolingHttpClientConnectionManager reviewConnectionManager,
+        @Value("${api.review-client.connection-request-timeout:500ms}") Duration connectionRequestTimeout,
+        @Value("${api.review-client.response-timeout:2s}") Duration responseTimeout,
+        @Value("${api.review-client.keep-alive:30s}") Duration keepAlive,
+        @Value("${api.review-client.compression:true}") boolean compression)
+    {
+        TimeValue maxKeepAlive = TimeValue.of(keepAlive);
+
+        HttpClientBuilder builder = HttpClients.custom()
+                .setConnectionManager(reviewConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(connectionRequestTimeout))
+                        .setResponseTimeout(Timeout.of(responseTimeout))
+                        .build())
+                .setKeepAliveStrategy((response, context) -> maxKeepAlive)
+                .evictExpiredConnections()
+                .evictIdleConnections(maxKeepAlive);
+
+        if (!compression) {
+            builder.disableContentCompression();
+        }
+
+        return builder.build();
+    }
+
     @Bean
-    RestClient restClient() {
-        return RestClient.create();
+    RestClient restClient(RestClient.Builder restClientBuilder, CloseableHttpClient reviewHttpClient) {
+        return restClientBuilder
+                .requestFactory(new HttpComponentsClientHttpRequestFactory(reviewHttpClient))
+                .build();
     }
 }
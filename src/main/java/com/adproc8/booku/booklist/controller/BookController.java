@@ -1,31 +1,52 @@
 package com.adproc8.booku.booklist.controller;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.ListIterator;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
+import com.adproc8.booku.booklist.dto.BookSuggestionDto;
+import com.adproc8.booku.booklist.dto.BookViewDto;
+import com.adproc8.booku.booklist.dto.DeleteBooksRequestDto;
+import com.adproc8.booku.booklist.dto.DeleteBooksResponseDto;
 import com.adproc8.booku.booklist.dto.GetBooksByIdRequestDto;
+import com.adproc8.booku.booklist.dto.GetBooksPageResponseDto;
 import com.adproc8.booku.booklist.dto.PatchBookRequestDto;
+import com.adproc8.booku.booklist.dto.PatchBookResultDto;
 import com.adproc8.booku.booklist.dto.PatchBooksByIdRequestDto;
 import com.adproc8.booku.booklist.dto.PostBookRequestDto;
 import com.adproc8.booku.booklist.dto.PostBookResponseDto;
 import com.adproc8.booku.booklist.model.Book;
 import com.adproc8.booku.booklist.service.BookService;
 
-import static com.adproc8.booku.booklist.repository.BookRepository.BookSpecifications.*;
-
 @RestController
 @RequestMapping("/book")
 class BookController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int DEFAULT_SEARCH_PAGE_SIZE = 20;
+    private static final int DEFAULT_SUGGESTION_LIMIT = 10;
+    private static final int MAX_SUGGESTION_LIMIT = 20;
+
     private final BookService bookService;
 
     @Autowired
@@ -33,36 +54,146 @@ class BookController {
         this.bookService = bookService;
     }
 
+    private Sort sortOf(Optional<String> sortBy, Optional<String> orderBy) {
+        if (!sortBy.isPresent() || !orderBy.isPresent()) {
+            return Sort.unsorted();
+        }
+
+        Direction direction;
+        try {
+            direction = Direction.fromString(orderBy.get());
+        } catch (IllegalArgumentException exception) {
+            return Sort.unsorted();
+        }
+
+        return Sort.by(direction, sortBy.get());
+    }
+
+    private static Set<String> fieldsOf(String fields) {
+        Set<String> selected = new LinkedHashSet<>();
+
+        for (String field : fields.split(",")) {
+            String name = field.strip();
+            if (!BookViewDto.FIELDS.contains(name)) {
+                throw new IllegalArgumentException("Unknown field '" + name + "'");
+            }
+            selected.add(name);
+        }
+
+        return selected;
+    }
+
     @GetMapping("")
     @ResponseStatus(HttpStatus.OK)
     List<Book> getAllBooks(
         @RequestParam Optional<String> author, @RequestParam Optional<String> title,
+        @RequestParam Optional<String> filter,
         @RequestParam Optional<String> sortBy, @RequestParam Optional<String> orderBy)
     {
-        Specification<Book> bookSpec = Specification.where(null);
+        Specification<Book> bookSpec = BookFilterParser.specOf(author, title, filter);
+        Sort sort = sortOf(sortBy, orderBy);
 
-        if (author.isPresent()) {   
-            bookSpec = bookSpec.and(authorIs(author.get()));
+        if (sort.isUnsorted()) {
+            return bookService.findAll(bookSpec);
         }
-        if (title.isPresent()) {
-            bookSpec = bookSpec.and(titleIs(title.get()));
+
+        List<Book> books = bookService.findAll(bookSpec, sort);
+
+        return books;
+    }
+
+    @GetMapping(value = "", params = { "fields", "!size" })
+    @ResponseStatus(HttpStatus.OK)
+    List<BookViewDto> getAllBookViews(
+        @RequestParam Optional<String> author, @RequestParam Optional<String> title,
+        @RequestParam Optional<String> filter,
+        @RequestParam Optional<String> sortBy, @RequestParam Optional<String> orderBy,
+        @RequestParam String fields)
+    {
+        Specification<Book> bookSpec = BookFilterParser.specOf(author, title, filter);
+        Sort sort = sortOf(sortBy, orderBy);
+
+        return bookService.findAll(bookSpec, sort, fieldsOf(fields));
+    }
+
+    @GetMapping(value = "", params = "size")
+    @ResponseStatus(HttpStatus.OK)
+    GetBooksPageResponseDto<?> getBooksPage(
+        @RequestParam Optional<String> author, @RequestParam Optional<String> title,
+        @RequestParam Optional<String> filter,
+        @RequestParam Optional<String> sortBy, @RequestParam Optional<String> orderBy,
+        @RequestParam int size, @RequestParam Optional<Integer> page,
+        @RequestParam Optional<String> cursor, @RequestParam Optional<String> fields)
+    {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (page.isPresent() && cursor.isPresent()) {
+            throw new IllegalArgumentException("page and cursor cannot be used together");
         }
 
-        if (!sortBy.isPresent() || !orderBy.isPresent()) {
-            return bookService.findAll(bookSpec);
+        Specification<Book> bookSpec = BookFilterParser.specOf(author, title, filter);
+        Sort sort = sortOf(sortBy, orderBy);
+        Optional<Set<String>> selected = fields.map(BookController::fieldsOf);
+
+        if (page.isPresent()) {
+            PageRequest pageRequest = PageRequest.of(page.get(), size, sort);
+            Slice<?> books = selected.isPresent()
+                    ? bookService.findAll(bookSpec, pageRequest, selected.get())
+                    : bookService.findAll(bookSpec, pageRequest);
+
+            return new GetBooksPageResponseDto<>(books.getContent(),
+                    books.getNumber(), books.getSize(), books.hasNext(), null);
         }
 
-        Direction direction;
-        try {
-            direction = Direction.fromString(orderBy.get());
-        } catch (IllegalArgumentException exception) {
-            return bookService.findAll(bookSpec);
+        KeysetScrollPosition position = cursor
+                .map(value -> BookCursorCodec.decode(value, sort))
+                .orElse(ScrollPosition.keyset());
+
+        Window<?> books = selected.isPresent()
+                ? bookService.findAll(bookSpec, sort, position, size, selected.get())
+                : bookService.findAll(bookSpec, sort, position, size);
+
+        String nextCursor = null;
+        if (books.hasNext()) {
+            KeysetScrollPosition last = (KeysetScrollPosition) books.positionAt(books.size() - 1);
+            nextCursor = BookCursorCodec.encode(last, sort);
         }
 
-        String property = sortBy.get();
-        List<Book> books = bookService.findAll(bookSpec, Sort.by(direction, property));
+        return new GetBooksPageResponseDto<>(books.getContent(),
+                null, size, books.hasNext(), nextCursor);
+    }
 
-        return books;
+    @GetMapping("/search")
+    @ResponseStatus(HttpStatus.OK)
+    GetBooksPageResponseDto<Book> searchBooks(
+        @RequestParam String q,
+        @RequestParam Optional<Integer> page, @RequestParam Optional<Integer> size)
+    {
+        int pageSize = size.orElse(DEFAULT_SEARCH_PAGE_SIZE);
+
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        Slice<Book> books = bookService.search(q, PageRequest.of(page.orElse(0), pageSize));
+
+        return new GetBooksPageResponseDto<>(books.getContent(),
+                books.getNumber(), books.getSize(), books.hasNext(), null);
+    }
+
+    @GetMapping("/autocomplete")
+    @ResponseStatus(HttpStatus.OK)
+    List<BookSuggestionDto> autocomplete(
+        @RequestParam String q, @RequestParam Optional<Integer> limit)
+    {
+        int suggestionLimit = limit.orElse(DEFAULT_SUGGESTION_LIMIT);
+
+        if (suggestionLimit < 1 || suggestionLimit > MAX_SUGGESTION_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_SUGGESTION_LIMIT);
+        }
+
+        return bookService.suggest(q, suggestionLimit);
     }
 
     @GetMapping("/{bookId}")
@@ -77,6 +208,14 @@ class BookController {
         return bookService.findAllById(dto.getBookIds());
     }
 
+    @PostMapping(value = "/get-multiple", params = "fields")
+    @ResponseStatus(HttpStatus.OK)
+    List<BookViewDto> getMultipleBookViewsById(
+        @RequestBody GetBooksByIdRequestDto dto, @RequestParam String fields)
+    {
+        return bookService.findAllViewsById(dto.getBookIds(), fieldsOf(fields));
+    }
+
     @PostMapping("")
     @ResponseStatus(HttpStatus.OK)
     PostBookResponseDto createBook(@RequestBody PostBookRequestDto bookDto) {
@@ -103,9 +242,14 @@ class BookController {
     @ResponseStatus(HttpStatus.OK)
     void updateBookById(
         @PathVariable UUID bookId,
-        @RequestBody PatchBookRequestDto bookDto)
+        @RequestBody PatchBookRequestDto bookDto,
+        @RequestHeader(HttpHeaders.IF_MATCH) Optional<String> ifMatch)
     {
-        Book book = bookService.findById(bookId).get();
+        Book book = bookService.findLatestById(bookId).get();
+
+        if (ifMatch.isPresent() && !BookETags.matches(ifMatch.get(), BookETags.of(book))) {
+            throw new PreconditionFailedException("Book " + bookId + " does not match If-Match");
+        }
 
         Optional.ofNullable(bookDto.getPublisher())
                 .ifPresent(publisher -> book.setPublisher(publisher));
@@ -129,43 +273,70 @@ class BookController {
 
     @PatchMapping("")
     @ResponseStatus(HttpStatus.OK)
-    void updateMultipleBooksById(
+    List<PatchBookResultDto> updateMultipleBooksById(
         @RequestBody PatchBooksByIdRequestDto patchBooksByIdDto)
     {
-        List<PatchBookRequestDto> patchBookDtos = patchBooksByIdDto.getPatchBookDtos();
-        List<UUID> bookIds = patchBookDtos.stream()
-                .map(PatchBookRequestDto::getId)
-                .toList();
-
-        List<Book> books = bookService.findAllById(bookIds);
-
-        ListIterator<Book> booksIterator = books.listIterator();
-        ListIterator<PatchBookRequestDto> patchBookDtosIterator =
-                patchBookDtos.listIterator();
-
-        while (booksIterator.hasNext() && patchBookDtosIterator.hasNext()) {
-            Book book = booksIterator.next();
-            PatchBookRequestDto bookDto = patchBookDtosIterator.next();
-
-            Optional.ofNullable(bookDto.getPublisher())
-                    .ifPresent(publisher -> book.setPublisher(publisher));
-            Optional.ofNullable(bookDto.getPrice())
-                    .ifPresent(price -> book.setPrice(price));
-            Optional.ofNullable(bookDto.getPublishDate())
-                    .ifPresent(publishDate -> book.setPublishDate(publishDate));
-            Optional.ofNullable(bookDto.getIsbn())
-                    .ifPresent(isbn -> book.setIsbn(isbn));
-            Optional.ofNullable(bookDto.getPageCount())
-                    .ifPresent(pageCount -> book.setPageCount(pageCount));
-            Optional.ofNullable(bookDto.getPhotoUrl())
-                    .ifPresent(photoUrl -> book.setPhotoUrl(photoUrl));
-            Optional.ofNullable(bookDto.getCategory())
-                    .ifPresent(category -> book.setCategory(category));
-            Optional.ofNullable(bookDto.getDownloadCount())
-                    .ifPresent(downloadCount -> book.setDownloadCount(downloadCount));
-        }
-
-        bookService.saveAll(books);
+        Map<UUID, Map<String, Object>> changes = new LinkedHashMap<>();
+        List<PatchBookResultDto> rejected = new ArrayList<>();
+
+        for (PatchBookRequestDto bookDto : patchBooksByIdDto.getPatchBookDtos()) {
+            String error = bookDto.getId() == null ? "id is required" : validatePatch(bookDto);
+
+            if (error != null) {
+                rejected.add(new PatchBookResultDto(bookDto.getId(), "invalid", error));
+                continue;
+            }
+
+            // Patches to the same book are merged, later fields winning.
+            changes.computeIfAbsent(bookDto.getId(), id -> new HashMap<>())
+                    .putAll(changesOf(bookDto));
+        }
+
+        List<PatchBookResultDto> results = new ArrayList<>();
+
+        if (!changes.isEmpty()) {
+            bookService.updateAll(changes).forEach((bookId, result) -> results.add(
+                    new PatchBookResultDto(bookId, result.name().toLowerCase(Locale.ROOT), null)));
+        }
+
+        results.addAll(rejected);
+        return results;
+    }
+
+    private static Map<String, Object> changesOf(PatchBookRequestDto bookDto) {
+        Map<String, Object> changes = new HashMap<>();
+
+        Optional.ofNullable(bookDto.getPublisher())
+                .ifPresent(publisher -> changes.put("publisher", publisher));
+        Optional.ofNullable(bookDto.getPrice())
+                .ifPresent(price -> changes.put("price", price));
+        Optional.ofNullable(bookDto.getPublishDate())
+                .ifPresent(publishDate -> changes.put("publishDate", publishDate));
+        Optional.ofNullable(bookDto.getIsbn())
+                .ifPresent(isbn -> changes.put("isbn", isbn));
+        Optional.ofNullable(bookDto.getPageCount())
+                .ifPresent(pageCount -> changes.put("pageCount", pageCount));
+        Optional.ofNullable(bookDto.getPhotoUrl())
+                .ifPresent(photoUrl -> changes.put("photoUrl", photoUrl));
+        Optional.ofNullable(bookDto.getCategory())
+                .ifPresent(category -> changes.put("category", category));
+        Optional.ofNullable(bookDto.getDownloadCount())
+                .ifPresent(downloadCount -> changes.put("downloadCount", downloadCount));
+
+        return changes;
+    }
+
+    private static String validatePatch(PatchBookRequestDto bookDto) {
+        if (bookDto.getPrice() != null && bookDto.getPrice() < 0) {
+            return "price must not be negative";
+        }
+        if (bookDto.getPageCount() != null && bookDto.getPageCount() < 0) {
+            return "pageCount must not be negative";
+        }
+        if (bookDto.getDownloadCount() != null && bookDto.getDownloadCount() < 0) {
+            return "downloadCount must not be negative";
+        }
+        return null;
     }
 
     @DeleteMapping("/{bookId}")
@@ -173,4 +344,21 @@ class BookController {
     void deleteBookById(@PathVariable UUID bookId) {
         bookService.deleteById(bookId);
     }
+
+    @DeleteMapping("")
+    @ResponseStatus(HttpStatus.OK)
+    DeleteBooksResponseDto deleteBooks(@RequestBody DeleteBooksRequestDto dto) {
+        boolean byId = dto.getBookIds() != null;
+        boolean byFilter = dto.getFilter() != null;
+
+        if (byId == byFilter) {
+            throw new IllegalArgumentException("Exactly one of bookIds and filter must be given");
+        }
+
+        long count = byId
+                ? bookService.deleteAllById(dto.getBookIds(), dto.isDryRun())
+                : bookService.deleteAll(BookFilterParser.parse(dto.getFilter()), dto.isDryRun());
+
+        return new DeleteBooksResponseDto(count, dto.isDryRun());
+    }
 }
@@ -0,0 +1,74 @@
+package com.adproc8.booku.booklist.controller;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import com.adproc8.booku.booklist.model.Book;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Turns keyset scroll positions into opaque cursors and back. A cursor
+ * carries the sort it was issued for and is rejected under any other sort.
+ */
+final class BookCursorCodec {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final String SORT_FIELD = "sort";
+    private static final String KEYS_FIELD = "keys";
+
+    private BookCursorCodec() {}
+
+    static String encode(KeysetScrollPosition position, Sort sort) {
+        Map<String, Object> cursor = Map.of(
+                SORT_FIELD, sort.toString(),
+                KEYS_FIELD, position.getKeys());
+
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(cursor);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to encode cursor", ex);
+        }
+    }
+
+    static KeysetScrollPosition decode(String cursor, Sort sort) throws IllegalArgumentException {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(Base64.getUrlDecoder().decode(cursor));
+        } catch (IllegalArgumentException | IOException ex) {
+            throw new IllegalArgumentException("Invalid cursor", ex);
+        }
+
+        if (!sort.toString().equals(node.path(SORT_FIELD).asText())) {
+            throw new IllegalArgumentException("Cursor was issued for a different sort");
+        }
+
+        Map<String, Object> keys = new LinkedHashMap<>();
+        node.path(KEYS_FIELD).fields().forEachRemaining(
+                entry -> keys.put(entry.getKey(), toKeyValue(entry.getKey(), entry.getValue())));
+
+        if (keys.isEmpty()) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+
+        return ScrollPosition.forward(keys);
+    }
+
+    private static Object toKeyValue(String property, JsonNode value) {
+        try {
+            Class<?> type = Book.class.getDeclaredField(property).getType();
+            return objectMapper.treeToValue(value, type);
+        } catch (NoSuchFieldException | JsonProcessingException ex) {
+            throw new IllegalArgumentException("Invalid cursor", ex);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.adproc8.booku.booklist.controller;
+
+import java.util.Collection;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import com.adproc8.booku.booklist.dto.BookViewDto;
+import com.adproc8.booku.booklist.dto.GetBooksPageResponseDto;
+import com.adproc8.booku.booklist.model.Book;
+
+/**
+ * Tags GET responses holding a book, a list of books or views, or a page of
+ * either with an ETag, and answers requests whose {@code If-None-Match}
+ * still matches with 304 Not Modified before the books are serialized.
+ */
+@ControllerAdvice
+class BookETagAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(
+        MethodParameter returnType,
+        Class<? extends HttpMessageConverter<?>> converterType)
+    {
+        ResolvableType type = ResolvableType.forMethodParameter(returnType);
+        Class<?> bodyType = type.toClass();
+
+        return Book.class.isAssignableFrom(bodyType)
+                || GetBooksPageResponseDto.class.isAssignableFrom(bodyType)
+                || (Collection.class.isAssignableFrom(bodyType)
+                        && isBookOrView(type.asCollection().getGeneric(0).toClass()));
+    }
+
+    private static boolean isBookOrView(Class<?> type) {
+        return Book.class.isAssignableFrom(type) || BookViewDto.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public Object beforeBodyWrite(
+        Object body, MethodParameter returnType, MediaType selectedContentType,
+        Class<? extends HttpMessageConverter<?>> selectedConverterType,
+        ServerHttpRequest request, ServerHttpResponse response)
+    {
+        if (body == null
+                || request.getMethod() != HttpMethod.GET
+                || !(request instanceof ServletServerHttpRequest servletRequest)
+                || !(response instanceof ServletServerHttpResponse servletResponse))
+        {
+            return body;
+        }
+
+        String eTag = eTagOf(body);
+
+        ServletWebRequest webRequest = new ServletWebRequest(
+                servletRequest.getServletRequest(), servletResponse.getServletResponse());
+
+        return webRequest.checkNotModified(eTag) ? null : body;
+    }
+
+    private static String eTagOf(Object body) {
+        if (body instanceof Book book) {
+            return BookETags.of(book);
+        }
+        if (body instanceof GetBooksPageResponseDto<?> page) {
+            return BookETags.of(page);
+        }
+        return BookETags.ofItems((Collection<?>) body);
+    }
+}
@@ -0,0 +1,107 @@
+package com.adproc8.booku.booklist.controller;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.util.DigestUtils;
+
+import com.adproc8.booku.booklist.dto.BookViewDto;
+import com.adproc8.booku.booklist.dto.GetBooksPageResponseDto;
+import com.adproc8.booku.booklist.model.Book;
+
+/**
+ * Entity tags for books, derived from their IDs, versions and ratings rather
+ * than from the serialized response, so they are cheap to compute and a
+ * matching request can be answered without serializing anything.
+ *
+ * <p>Ratings are included because they are synced from the review service
+ * without bumping the version, and listings overlay cached ratings that
+ * may be newer still.
+ */
+final class BookETags {
+
+    private static final int BYTES_PER_BOOK = 2 * Long.BYTES + Long.BYTES + Float.BYTES;
+    private static final char UNIT_SEPARATOR = '\u001f';
+    private static final char RECORD_SEPARATOR = '\u001e';
+
+    private BookETags() {}
+
+    static String of(Book book) {
+        return of(List.of(book));
+    }
+
+    static String of(Collection<Book> books) {
+        ByteBuffer buffer = ByteBuffer.allocate(books.size() * BYTES_PER_BOOK);
+
+        for (Book book : books) {
+            UUID id = book.getId();
+            buffer.putLong(id != null ? id.getMostSignificantBits() : 0);
+            buffer.putLong(id != null ? id.getLeastSignificantBits() : 0);
+            buffer.putLong(book.getVersion());
+            buffer.putFloat(book.getRating());
+        }
+
+        return tag(buffer.array());
+    }
+
+    /**
+     * Views carry no version, so their tag is taken from the selected
+     * values themselves.
+     */
+    static String ofViews(Collection<BookViewDto> views) {
+        StringBuilder content = new StringBuilder();
+
+        for (BookViewDto view : views) {
+            Stream.of(view.getId(), view.getTitle(), view.getAuthor(), view.getPublisher(),
+                    view.getPrice(), view.getPublishDate(), view.getIsbn(), view.getPageCount(),
+                    view.getPhotoUrl(), view.getCategory(), view.getDownloadCount(), view.getRating())
+                    .forEach(value -> content.append(value).append(UNIT_SEPARATOR));
+            content.append(RECORD_SEPARATOR);
+        }
+
+        return tag(content.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Covers the page's books, whether full or narrowed to views, and the
+     * paging fields returned alongside them.
+     */
+    static String of(GetBooksPageResponseDto<?> page) {
+        String content = Stream.of(ofItems(page.getBooks()), page.getPage(), page.getSize(),
+                        page.isHasNext(), page.getNextCursor())
+                .map(String::valueOf)
+                .collect(Collectors.joining(String.valueOf(UNIT_SEPARATOR)));
+
+        return tag(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @SuppressWarnings("unchecked")
+    static String ofItems(Collection<?> items) {
+        return items.stream().allMatch(Book.class::isInstance)
+                ? of((Collection<Book>) items)
+                : ofViews((Collection<BookViewDto>) items);
+    }
+
+    private static String tag(byte[] content) {
+        return "\"" + DigestUtils.md5DigestAsHex(content) + "\"";
+    }
+
+    /**
+     * Whether an {@code If-Match} header value matches the given tag, using
+     * the strong comparison that {@code If-Match} requires.
+     */
+    static boolean matches(String ifMatch, String eTag) {
+        for (String candidate : ifMatch.split(",")) {
+            String tag = candidate.strip();
+            if (tag.equals("*") || tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,128 @@
+package com.adproc8.booku.booklist.controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.adproc8.booku.booklist.model.Book;
+import com.adproc8.booku.booklist.service.BookService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Exports the catalog as NDJSON, one book per line, streamed from a
+ * database cursor as it is read so that the size of the catalog does not
+ * matter. The export is gzipped when the client accepts it.
+ */
+@RestController
+@RequestMapping("/book")
+class BookExportController {
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final BookService bookService;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    BookExportController(BookService bookService, ObjectMapper objectMapper) {
+        this.bookService = bookService;
+        this.objectMapper = objectMapper;
+    }
+
+    @GetMapping(value = "/export", produces = BookImportReader.NDJSON)
+    ResponseEntity<StreamingResponseBody> exportBooks(
+        @RequestParam Optional<String> author, @RequestParam Optional<String> title,
+        @RequestParam Optional<String> filter,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, defaultValue = "") String acceptEncoding)
+    {
+        Specification<Book> spec = BookFilterParser.specOf(author, title, filter);
+        boolean gzip = acceptsGzip(acceptEncoding);
+
+        // Books are written to the generator's buffer without flushing after
+        // each one; closing the generator flushes it and finishes the gzip stream.
+        ObjectWriter writer = objectMapper.writerFor(Book.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        StreamingResponseBody body = output -> {
+            OutputStream stream = gzip ? new GZIPOutputStream(output, GZIP_BUFFER_SIZE) : output;
+
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(stream)) {
+                generator.setRootValueSeparator(null);
+
+                bookService.forEach(spec, book -> {
+                    try {
+                        writer.writeValue(generator, book);
+                        generator.writeRaw('\n');
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(BookImportReader.NDJSON))
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        return response.body(body);
+    }
+
+    /**
+     * Whether {@code Accept-Encoding} gives gzip, or failing that {@code *},
+     * a non-zero quality.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        Double gzip = null;
+        Double any = null;
+
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.split(";");
+            String name = parameters[0].strip().toLowerCase(Locale.ROOT);
+
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzip = qualityOf(parameters);
+            } else if (name.equals("*")) {
+                any = qualityOf(parameters);
+            }
+        }
+
+        Double quality = gzip != null ? gzip : any;
+        return quality != null && quality > 0;
+    }
+
+    private static double qualityOf(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].strip();
+
+            if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).strip());
+                } catch (NumberFormatException ex) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
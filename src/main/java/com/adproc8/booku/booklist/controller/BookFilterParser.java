@@ -0,0 +1,246 @@
+package com.adproc8.booku.booklist.controller;
+
+import static com.adproc8.booku.booklist.repository.BookRepository.BookSpecifications.*;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.adproc8.booku.booklist.model.Book;
+
+/**
+ * Compiles filter expressions into book specifications.
+ *
+ * <p>A filter compares fields against values and combines the comparisons
+ * with {@code and}, {@code or}, {@code not} and parentheses, e.g.
+ * <pre>
+ * price &gt;= 50000 and category in (fiction, 'science fiction')
+ *     and not (rating &lt; 3 or publishDate &lt; 2000-01-01)
+ * </pre>
+ * Text fields support {@code =}, {@code !=} and {@code in}; numeric and date
+ * fields also support {@code <}, {@code <=}, {@code >} and {@code >=}. Values
+ * containing spaces or punctuation are quoted with {@code '}, and a quote
+ * inside them is doubled.
+ */
+final class BookFilterParser {
+
+    private static final int MAX_LENGTH = 2000;
+    private static final int MAX_IN_VALUES = 100;
+
+    private static final Map<String, Class<?>> FIELDS = Map.of(
+            "title", String.class,
+            "author", String.class,
+            "publisher", String.class,
+            "category", String.class,
+            "isbn", String.class,
+            "price", Integer.class,
+            "pageCount", Integer.class,
+            "downloadCount", Integer.class,
+            "rating", Float.class,
+            "publishDate", Date.class);
+
+    private static final Pattern TOKEN = Pattern.compile(
+            "\\s*(?:(<=|>=|!=|=|<|>|\\(|\\)|,)|'((?:[^']|'')*)'|([^\\s(),=<>!']+))\\s*");
+
+    private record Token(String text, boolean quoted) {
+
+        boolean is(String symbol) {
+            return !quoted && text.equalsIgnoreCase(symbol);
+        }
+    }
+
+    private final List<Token> tokens;
+    private int position;
+
+    private BookFilterParser(List<Token> tokens) {
+        this.tokens = tokens;
+    }
+
+    /**
+     * Combines the {@code author}, {@code title} and {@code filter} query
+     * parameters shared by the book listing endpoints into one specification.
+     */
+    static Specification<Book> specOf(
+        Optional<String> author, Optional<String> title, Optional<String> filter)
+        throws IllegalArgumentException
+    {
+        Specification<Book> bookSpec = Specification.where(null);
+
+        if (author.isPresent()) {
+            bookSpec = bookSpec.and(authorIs(author.get()));
+        }
+        if (title.isPresent()) {
+            bookSpec = bookSpec.and(titleIs(title.get()));
+        }
+        if (filter.isPresent()) {
+            bookSpec = bookSpec.and(parse(filter.get()));
+        }
+
+        return bookSpec;
+    }
+
+    static Specification<Book> parse(String filter) throws IllegalArgumentException {
+        if (filter.length() > MAX_LENGTH) {
+            throw new IllegalArgumentException("filter must be at most " + MAX_LENGTH + " characters");
+        }
+
+        BookFilterParser parser = new BookFilterParser(tokenize(filter));
+        Specification<Book> spec = parser.parseOr();
+
+        if (parser.position < parser.tokens.size()) {
+            throw new IllegalArgumentException(
+                    "Unexpected '" + parser.tokens.get(parser.position).text() + "' in filter");
+        }
+
+        return spec;
+    }
+
+    private static List<Token> tokenize(String filter) {
+        List<Token> tokens = new ArrayList<>();
+        Matcher matcher = TOKEN.matcher(filter);
+        int end = 0;
+
+        while (end < filter.length()) {
+            if (!matcher.find(end) || matcher.start() != end) {
+                throw new IllegalArgumentException("Invalid filter near position " + end);
+            }
+
+            if (matcher.group(1) != null) {
+                tokens.add(new Token(matcher.group(1), false));
+            } else if (matcher.group(2) != null) {
+                tokens.add(new Token(matcher.group(2).replace("''", "'"), true));
+            } else if (matcher.group(3) != null) {
+                tokens.add(new Token(matcher.group(3), false));
+            }
+            end = matcher.end();
+        }
+
+        return tokens;
+    }
+
+    private Specification<Book> parseOr() {
+        Specification<Book> spec = parseAnd();
+        while (accept("or")) {
+            spec = spec.or(parseAnd());
+        }
+        return spec;
+    }
+
+    private Specification<Book> parseAnd() {
+        Specification<Book> spec = parseNot();
+        while (accept("and")) {
+            spec = spec.and(parseNot());
+        }
+        return spec;
+    }
+
+    private Specification<Book> parseNot() {
+        if (accept("not")) {
+            return Specification.not(parseNot());
+        }
+        if (accept("(")) {
+            Specification<Book> spec = parseOr();
+            expect(")");
+            return spec;
+        }
+        return parseComparison();
+    }
+
+    private Specification<Book> parseComparison() {
+        Token fieldToken = next("field");
+        String field = fieldToken.text();
+        Class<?> type = FIELDS.get(field);
+
+        if (fieldToken.quoted() || type == null) {
+            throw new IllegalArgumentException("Unknown filter field '" + field + "'");
+        }
+
+        if (accept("in")) {
+            expect("(");
+            List<Object> values = new ArrayList<>();
+            do {
+                values.add(valueOf(field, type, next("value")));
+            } while (accept(","));
+            expect(")");
+
+            if (values.size() > MAX_IN_VALUES) {
+                throw new IllegalArgumentException("in lists may hold at most " + MAX_IN_VALUES + " values");
+            }
+
+            return field.equals("category")
+                    ? categoryIn(values.stream().map(String.class::cast).toList())
+                    : fieldIn(field, values);
+        }
+
+        String operator = next("operator").text();
+        Object value = valueOf(field, type, next("value"));
+
+        return switch (operator) {
+            case "=" -> fieldIs(field, value);
+            case "!=" -> Specification.not(fieldIs(field, value));
+            case "<", "<=", ">", ">=" -> compare(field, type, operator, value);
+            default -> throw new IllegalArgumentException("Unknown filter operator '" + operator + "'");
+        };
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Specification<Book> compare(String field, Class<?> type, String operator, Object value) {
+        if (type == String.class) {
+            throw new IllegalArgumentException("'" + field + "' does not support '" + operator + "'");
+        }
+
+        Comparable comparable = (Comparable) value;
+
+        return switch (operator) {
+            case "<" -> fieldLessThan(field, comparable);
+            case "<=" -> fieldAtMost(field, comparable);
+            case ">" -> fieldGreaterThan(field, comparable);
+            default -> fieldAtLeast(field, comparable);
+        };
+    }
+
+    private static Object valueOf(String field, Class<?> type, Token token) {
+        String text = token.text();
+
+        try {
+            if (type == Integer.class) {
+                return Integer.valueOf(text);
+            } else if (type == Float.class) {
+                return Float.valueOf(text);
+            } else if (type == Date.class) {
+                return Date.valueOf(text);
+            }
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid value '" + text + "' for '" + field + "'", ex);
+        }
+
+        return text;
+    }
+
+    private boolean accept(String symbol) {
+        if (position < tokens.size() && tokens.get(position).is(symbol)) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(String symbol) {
+        if (!accept(symbol)) {
+            throw new IllegalArgumentException("Expected '" + symbol + "' in filter");
+        }
+    }
+
+    private Token next(String expected) {
+        if (position >= tokens.size()) {
+            throw new IllegalArgumentException("Expected " + expected + " at end of filter");
+        }
+        return tokens.get(position++);
+    }
+}
@@ -0,0 +1,212 @@
+package com.adproc8.booku.booklist.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.adproc8.booku.booklist.dto.ImportBooksResponseDto;
+import com.adproc8.booku.booklist.dto.ImportErrorDto;
+import com.adproc8.booku.booklist.dto.PostBookRequestDto;
+import com.adproc8.booku.booklist.model.Book;
+import com.adproc8.booku.booklist.service.BookService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Imports books in bulk from an NDJSON or CSV stream.
+ *
+ * <p>Records are read one at a time and written in batches, each committed
+ * on its own, so a failed import keeps the batches written before it. Books
+ * whose title and author match a book already in the catalog, or one earlier
+ * in the stream, are skipped and reported as duplicates. Invalid records are
+ * skipped and reported without stopping the import.
+ */
+@RestController
+@RequestMapping("/book")
+class BookImportController {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookImportController.class);
+
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    private final BookService bookService;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int maxErrors;
+
+    @Autowired
+    BookImportController(
+        BookService bookService,
+        ObjectMapper objectMapper,
+        @Value("${book.import.batch-size:5000}") int batchSize,
+        @Value("${book.import.max-errors:1000}") int maxErrors)
+    {
+        this.bookService = bookService;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+    }
+
+    @PostMapping(value = "/import", consumes = BookImportReader.NDJSON)
+    @ResponseStatus(HttpStatus.OK)
+    ImportBooksResponseDto importBooksFromNdjson(InputStream body) throws IOException {
+        try (BookImportReader reader = BookImportReader.ndjson(body, objectMapper)) {
+            return new BookImport().run(reader);
+        }
+    }
+
+    @PostMapping(value = "/import", consumes = BookImportReader.CSV)
+    @ResponseStatus(HttpStatus.OK)
+    ImportBooksResponseDto importBooksFromCsv(InputStream body) throws IOException {
+        try (BookImportReader reader = BookImportReader.csv(body, objectMapper)) {
+            return new BookImport().run(reader);
+        }
+    }
+
+    private static String validate(PostBookRequestDto dto) {
+        Map<String, String> texts = new LinkedHashMap<>();
+        texts.put("title", dto.getTitle());
+        texts.put("author", dto.getAuthor());
+        texts.put("publisher", dto.getPublisher());
+        texts.put("isbn", dto.getIsbn());
+        texts.put("photoUrl", dto.getPhotoUrl());
+        texts.put("category", dto.getCategory());
+
+        for (Map.Entry<String, String> text : texts.entrySet()) {
+            if (text.getValue() == null || text.getValue().isBlank()) {
+                return text.getKey() + " is required";
+            }
+            if (text.getValue().length() > MAX_TEXT_LENGTH) {
+                return text.getKey() + " must be at most " + MAX_TEXT_LENGTH + " characters";
+            }
+        }
+
+        if (dto.getPublishDate() == null) {
+            return "publishDate is required";
+        }
+        if (dto.getPrice() < 0) {
+            return "price must not be negative";
+        }
+        if (dto.getPageCount() < 0) {
+            return "pageCount must not be negative";
+        }
+
+        return null;
+    }
+
+    private static Book toBook(PostBookRequestDto bookDto) {
+        return Book.builder()
+            .title(bookDto.getTitle())
+            .author(bookDto.getAuthor())
+            .publisher(bookDto.getPublisher())
+            .price(bookDto.getPrice())
+            .publishDate(bookDto.getPublishDate())
+            .isbn(bookDto.getIsbn())
+            .pageCount(bookDto.getPageCount())
+            .photoUrl(bookDto.getPhotoUrl())
+            .category(bookDto.getCategory())
+            .build();
+    }
+
+    /**
+     * The state of a single import: the batch being filled and the tally so
+     * far. Only the first {@code maxErrors} errors are kept.
+     */
+    private class BookImport {
+
+        private final List<Book> batch = new ArrayList<>();
+        private final List<Long> batchLines = new ArrayList<>();
+        private final Map<List<String>, Long> batchKeys = new HashMap<>();
+        private final List<ImportErrorDto> errors = new ArrayList<>();
+        private long imported;
+        private long duplicates;
+        private long rejected;
+
+        ImportBooksResponseDto run(BookImportReader reader) throws IOException {
+            long start = System.nanoTime();
+
+            BookImportReader.Row row;
+            while ((row = reader.next()) != null) {
+                String error = row.error() != null ? row.error() : validate(row.book());
+
+                if (error != null) {
+                    rejected++;
+                    report(row.line(), error);
+                    continue;
+                }
+
+                add(row.line(), toBook(row.book()));
+            }
+            flush();
+
+            logger.info("Imported {} books, skipped {} duplicates and {} invalid records in {} ms",
+                    imported, duplicates, rejected,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+            return new ImportBooksResponseDto(imported, duplicates, rejected, errors);
+        }
+
+        private void add(long line, Book book) {
+            Long firstLine = batchKeys.putIfAbsent(List.of(book.getTitle(), book.getAuthor()), line);
+
+            if (firstLine != null) {
+                duplicates++;
+                report(line, "Duplicate of the book on line " + firstLine);
+                return;
+            }
+
+            batch.add(book);
+            batchLines.add(line);
+
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            Set<UUID> insertedIds = bookService.insertAll(batch).stream()
+                    .map(Book::getId)
+                    .collect(Collectors.toSet());
+
+            imported += insertedIds.size();
+
+            for (int i = 0; i < batch.size(); i++) {
+                if (!insertedIds.contains(batch.get(i).getId())) {
+                    duplicates++;
+                    report(batchLines.get(i), "A book with this title and author already exists");
+                }
+            }
+
+            batch.clear();
+            batchLines.clear();
+            batchKeys.clear();
+        }
+
+        private void report(long line, String message) {
+            if (errors.size() < maxErrors) {
+                errors.add(new ImportErrorDto(line, message));
+            }
+        }
+    }
+}
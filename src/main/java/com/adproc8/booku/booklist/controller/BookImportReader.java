@@ -0,0 +1,273 @@
+package com.adproc8.booku.booklist.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.adproc8.booku.booklist.dto.PostBookRequestDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Reads book records one at a time from an NDJSON or CSV stream, so an
+ * import holds at most one record in memory however large the stream is.
+ *
+ * <p>NDJSON holds one {@link PostBookRequestDto} object per line. CSV starts
+ * with a header naming the columns after the fields of
+ * {@link PostBookRequestDto}, in any order. CSV values may be quoted with
+ * {@code "}, in which case they may contain commas, doubled quotes and line
+ * breaks. Blank lines are skipped in both formats. A line is never held in
+ * full beyond {@value #MAX_RECORD_LENGTH} characters; longer records are
+ * skipped and reported.
+ */
+final class BookImportReader implements AutoCloseable {
+
+    static final String NDJSON = "application/x-ndjson";
+    static final String CSV = "text/csv";
+
+    private static final int MAX_RECORD_LENGTH = 64 * 1024;
+
+    // Primitive in PostBookRequestDto, so a missing value would read as 0.
+    private static final List<String> REQUIRED_NUMBERS = List.of("price", "pageCount");
+
+    private static final Set<String> CSV_COLUMNS = Set.of(
+            "title", "author", "publisher", "price", "publishDate",
+            "isbn", "pageCount", "photoUrl", "category");
+
+    /**
+     * A record read from the stream, holding either the book or the reason
+     * it could not be read.
+     */
+    record Row(long line, PostBookRequestDto book, String error) {}
+
+    private final Reader reader;
+    private final ObjectMapper objectMapper;
+    private final List<String> header;
+    private long line;
+
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private boolean skipLineFeed;
+
+    private BookImportReader(InputStream input, ObjectMapper objectMapper, boolean csv) throws IOException {
+        this.reader = new InputStreamReader(input, StandardCharsets.UTF_8);
+        this.objectMapper = objectMapper;
+        this.header = csv ? readHeader() : null;
+    }
+
+    static BookImportReader ndjson(InputStream input, ObjectMapper objectMapper) throws IOException {
+        return new BookImportReader(input, objectMapper, false);
+    }
+
+    static BookImportReader csv(InputStream input, ObjectMapper objectMapper)
+        throws IOException, IllegalArgumentException
+    {
+        return new BookImportReader(input, objectMapper, true);
+    }
+
+    /**
+     * @return the next record, or {@code null} at the end of the stream
+     */
+    Row next() throws IOException {
+        String text = nextLine();
+        if (text == null) {
+            return null;
+        }
+
+        long recordLine = line;
+
+        if (text.length() > MAX_RECORD_LENGTH) {
+            return new Row(recordLine, null, "Record is longer than " + MAX_RECORD_LENGTH + " characters");
+        }
+
+        try {
+            JsonNode fields = header == null ? objectMapper.readTree(text) : fromCsv(text);
+            return new Row(recordLine, toBook(fields), null);
+        } catch (JsonProcessingException | IllegalArgumentException ex) {
+            return new Row(recordLine, null, messageOf(ex));
+        }
+    }
+
+    private List<String> readHeader() throws IOException {
+        String text = nextLine();
+        if (text == null) {
+            throw new IllegalArgumentException("CSV import must start with a header");
+        }
+
+        List<String> columns = new ArrayList<>();
+        for (String column : splitCsv(text)) {
+            String name = column.strip();
+            if (!CSV_COLUMNS.contains(name)) {
+                throw new IllegalArgumentException("Unknown CSV column '" + name + "'");
+            }
+            columns.add(name);
+        }
+
+        return columns;
+    }
+
+    private PostBookRequestDto toBook(JsonNode fields) throws JsonProcessingException, IllegalArgumentException {
+        if (!fields.isObject()) {
+            throw new IllegalArgumentException("Record must be an object");
+        }
+        for (String field : REQUIRED_NUMBERS) {
+            if (!fields.hasNonNull(field)) {
+                throw new IllegalArgumentException(field + " is required");
+            }
+        }
+
+        return objectMapper.treeToValue(fields, PostBookRequestDto.class);
+    }
+
+    private JsonNode fromCsv(String text) throws IOException {
+        List<String> values = splitCsv(text);
+
+        if (values.size() != header.size()) {
+            throw new IllegalArgumentException(
+                    "Expected " + header.size() + " columns but found " + values.size());
+        }
+
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            String value = values.get(i);
+            fields.put(header.get(i), value.isEmpty() ? null : value);
+        }
+
+        return objectMapper.valueToTree(fields);
+    }
+
+    /**
+     * Splits a CSV record into its values, reading further lines while a
+     * quoted value is left open.
+     */
+    private List<String> splitCsv(String text) throws IOException {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+
+        while (true) {
+            if (i == text.length()) {
+                if (!quoted) {
+                    break;
+                }
+
+                String more = readLine();
+                line++;
+                if (more == null) {
+                    throw new IllegalArgumentException("Unterminated quoted value");
+                }
+                if (value.length() + more.length() > MAX_RECORD_LENGTH) {
+                    throw new IllegalArgumentException("Record is longer than " + MAX_RECORD_LENGTH + " characters");
+                }
+
+                value.append('\n');
+                text = more;
+                i = 0;
+                continue;
+            }
+
+            char c = text.charAt(i++);
+
+            if (quoted) {
+                if (c != '"') {
+                    value.append(c);
+                } else if (i < text.length() && text.charAt(i) == '"') {
+                    value.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+
+        values.add(value.toString());
+        return values;
+    }
+
+    private String nextLine() throws IOException {
+        String text;
+        do {
+            text = readLine();
+            line++;
+        } while (text != null && text.isBlank());
+
+        return text;
+    }
+
+    /**
+     * Reads the next line like {@link java.io.BufferedReader#readLine()},
+     * but keeps no more than one character past {@value #MAX_RECORD_LENGTH},
+     * so that a huge line is skipped rather than buffered.
+     *
+     * @return the line, cut short if it is too long, or {@code null} at the
+     *         end of the stream
+     */
+    private String readLine() throws IOException {
+        StringBuilder text = null;
+
+        while (true) {
+            if (position == limit) {
+                limit = Math.max(reader.read(buffer), 0);
+                position = 0;
+                if (limit == 0) {
+                    return text == null ? null : text.toString();
+                }
+            }
+
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (buffer[position] == '\n') {
+                    position++;
+                    continue;
+                }
+            }
+
+            if (text == null) {
+                text = new StringBuilder();
+            }
+
+            int start = position;
+            while (position < limit && buffer[position] != '\n' && buffer[position] != '\r') {
+                position++;
+            }
+
+            int room = MAX_RECORD_LENGTH + 1 - text.length();
+            text.append(buffer, start, Math.min(position - start, room));
+
+            if (position < limit) {
+                skipLineFeed = buffer[position] == '\r';
+                position++;
+                return text.toString();
+            }
+        }
+    }
+
+    private static String messageOf(Exception ex) {
+        if (ex instanceof JsonProcessingException jsonEx) {
+            return "Invalid record: " + jsonEx.getOriginalMessage();
+        }
+        return ex.getMessage();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -5,6 +5,7 @@ import java.util.NoSuchElementException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.ErrorResponse;
@@ -54,6 +55,24 @@ class ExceptionAdvice {
         return errorResponse;
     }
 
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    ErrorResponse handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        logger.error(ex.getMessage(), ex);
+        ErrorResponse errorResponse = ErrorResponse.create(ex,
+            HttpStatus.CONFLICT, "Resource was modified by another request");
+        return errorResponse;
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    ErrorResponse handlePreconditionFailedException(PreconditionFailedException ex) {
+        logger.error(ex.getMessage(), ex);
+        ErrorResponse errorResponse = ErrorResponse.create(ex,
+            HttpStatus.PRECONDITION_FAILED, "Resource does not match the precondition");
+        return errorResponse;
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     ErrorResponse handleIllegalArgumentException(IllegalArgumentException ex) {
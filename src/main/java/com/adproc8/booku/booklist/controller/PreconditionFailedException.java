@@ -0,0 +1,12 @@
+package com.adproc8.booku.booklist.controller;
+
+/**
+ * Thrown when a conditional request's precondition, such as
+ * {@code If-Match}, does not hold for the current state of the resource.
+ */
+class PreconditionFailedException extends RuntimeException {
+
+    PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,14 @@
+package com.adproc8.booku.booklist.dto;
+
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class BookSuggestionDto {
+    private String text;
+    private String type;
+    private UUID bookId;
+}
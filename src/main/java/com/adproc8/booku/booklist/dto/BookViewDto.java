@@ -0,0 +1,40 @@
+package com.adproc8.booku.booklist.dto;
+
+import java.sql.Date;
+import java.util.Set;
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Read-only view of a book holding only the requested fields. Fields that
+ * were not requested are left null and omitted from the response.
+ */
+@Getter
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookViewDto {
+
+    public static final Set<String> FIELDS = Set.of(
+            "id", "title", "author", "publisher", "price", "publishDate", "isbn",
+            "pageCount", "photoUrl", "category", "downloadCount", "rating");
+
+    private UUID id;
+    private String title;
+    private String author;
+    private String publisher;
+    private Integer price;
+    private Date publishDate;
+    private String isbn;
+    private Integer pageCount;
+    private String photoUrl;
+    private String category;
+    private Integer downloadCount;
+
+    @Setter
+    private Float rating;
+}
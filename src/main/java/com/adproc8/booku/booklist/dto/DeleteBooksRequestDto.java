@@ -0,0 +1,13 @@
+package com.adproc8.booku.booklist.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+import lombok.Getter;
+
+@Getter
+public class DeleteBooksRequestDto {
+    private List<UUID> bookIds;
+    private String filter;
+    private boolean dryRun;
+}
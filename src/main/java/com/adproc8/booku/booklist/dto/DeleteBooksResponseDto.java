@@ -0,0 +1,11 @@
+package com.adproc8.booku.booklist.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class DeleteBooksResponseDto {
+    private long count;
+    private boolean dryRun;
+}
@@ -0,0 +1,16 @@
+package com.adproc8.booku.booklist.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class GetBooksPageResponseDto<T> {
+    private List<T> books;
+    private Integer page;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+}
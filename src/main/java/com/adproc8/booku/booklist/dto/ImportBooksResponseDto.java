@@ -0,0 +1,15 @@
+package com.adproc8.booku.booklist.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ImportBooksResponseDto {
+    private long imported;
+    private long duplicates;
+    private long rejected;
+    private List<ImportErrorDto> errors;
+}
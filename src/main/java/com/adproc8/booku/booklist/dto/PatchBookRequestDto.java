@@ -9,11 +9,11 @@ import lombok.Getter;
 public class PatchBookRequestDto {
     private UUID id;
     private String publisher;
-    private int price;
+    private Integer price;
     private Date publishDate;
     private String isbn;
-    private int pageCount;
+    private Integer pageCount;
     private String photoUrl;
     private String category;
-    private int downloadCount;
+    private Integer downloadCount;
 }
@@ -0,0 +1,17 @@
+package com.adproc8.booku.booklist.dto;
+
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PatchBookResultDto {
+    private UUID id;
+    private String status;
+    private String message;
+}
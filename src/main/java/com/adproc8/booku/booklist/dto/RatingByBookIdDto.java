@@ -2,9 +2,13 @@ package com.adproc8.booku.booklist.dto;
 
 import java.util.UUID;
 
+import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 
 @Getter
+@NoArgsConstructor
+@AllArgsConstructor
 public class RatingByBookIdDto {
     private UUID bookId;
     private float averageRating;
@@ -0,0 +1,16 @@
+package com.adproc8.booku.booklist.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingChangesDto {
+    private List<RatingByBookIdDto> ratings;
+    private Instant watermark;
+}
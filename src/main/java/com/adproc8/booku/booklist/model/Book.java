@@ -4,6 +4,7 @@ import java.sql.Date;
 import java.util.UUID;
 
 import org.hibernate.annotations.Check;
+import org.hibernate.annotations.DynamicUpdate;
 
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -13,10 +14,11 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
+@DynamicUpdate
 @Table(
     uniqueConstraints = @UniqueConstraint(columnNames = {"title", "author"})
 )
-@Getter @Setter @Builder
+@Getter @Setter @Builder(toBuilder = true)
 @NoArgsConstructor @AllArgsConstructor
 public class Book {
 
@@ -60,4 +62,8 @@ public class Book {
     @Column(nullable = false)
     @Builder.Default
     private float rating = 0;
+
+    @Version
+    @Column(nullable = false)
+    private long version;
 }
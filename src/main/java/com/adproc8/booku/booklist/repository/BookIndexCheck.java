@@ -0,0 +1,95 @@
+package com.adproc8.booku.booklist.repository;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Checks at startup that the book table has an index for every filter and
+ * sort path the API offers.
+ *
+ * <p>Indexes are matched by their leading columns rather than by name, so
+ * an index on {@code (category, rating, id)} also satisfies a requirement
+ * for {@code (category, rating)}. Depending on {@code book.index-check.mode}
+ * a missing index fails startup, is logged as a warning, or is not checked.
+ */
+@Component
+class BookIndexCheck {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookIndexCheck.class);
+
+    enum Mode { FAIL, WARN, OFF }
+
+    static final List<List<String>> REQUIRED_INDEXES = List.of(
+            List.of("title", "author"),
+            List.of("author", "id"),
+            List.of("title", "id"),
+            List.of("category", "rating"),
+            List.of("category", "id"),
+            List.of("rating", "id"),
+            List.of("download_count", "id"),
+            List.of("publish_date", "id"),
+            List.of("price"),
+            List.of("page_count"));
+
+    private static final String INDEX_COLUMNS_SQL = """
+            SELECT array_agg(a.attname::text ORDER BY k.position)
+            FROM pg_index i
+            CROSS JOIN LATERAL unnest(i.indkey::int2[]) WITH ORDINALITY AS k(attnum, position)
+            JOIN pg_attribute a ON a.attrelid = i.indrelid AND a.attnum = k.attnum
+            WHERE i.indrelid = 'book'::regclass
+            GROUP BY i.indexrelid
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Mode mode;
+
+    @Autowired
+    BookIndexCheck(
+        JdbcTemplate jdbcTemplate,
+        @Value("${book.index-check.mode:fail}") Mode mode)
+    {
+        this.jdbcTemplate = jdbcTemplate;
+        this.mode = mode;
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    void check() throws IllegalStateException {
+        if (mode == Mode.OFF) {
+            return;
+        }
+
+        List<List<String>> missing = missingIndexes();
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        String message = "Missing indexes on book for columns " + missing;
+        if (mode == Mode.FAIL) {
+            throw new IllegalStateException(message);
+        }
+        logger.warn(message);
+    }
+
+    List<List<String>> missingIndexes() {
+        List<List<String>> indexes = jdbcTemplate.query(INDEX_COLUMNS_SQL,
+                (resultSet, rowNum) -> Arrays.asList((String[]) resultSet.getArray(1).getArray()));
+
+        return REQUIRED_INDEXES.stream()
+                .filter(required -> indexes.stream().noneMatch(index -> covers(index, required)))
+                .toList();
+    }
+
+    private static boolean covers(List<String> index, List<String> required) {
+        return index.size() >= required.size()
+                && index.subList(0, required.size()).equals(required);
+    }
+}
@@ -1,15 +1,45 @@
 package com.adproc8.booku.booklist.repository;
 
+import java.util.Collection;
 import java.util.Set;
 import java.util.UUID;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.adproc8.booku.booklist.model.Book;
 
-public interface BookRepository extends JpaRepository<Book, UUID>, JpaSpecificationExecutor<Book> {
+@Transactional(readOnly = true)
+public interface BookRepository
+extends JpaRepository<Book, UUID>, JpaSpecificationExecutor<Book>, BookRepositoryCustom
+{
+    /**
+     * Finds books whose title, author, publisher or category match every
+     * prefix in {@code prefixQuery}, or resemble {@code text} closely enough
+     * to tolerate typos. Full-text matches are ranked first.
+     *
+     * @param prefixQuery a {@code tsquery} such as {@code harr:* & pott:*}
+     * @param text the lower-cased search terms separated by spaces
+     */
+    @Query(value = """
+            SELECT * FROM book
+            WHERE search_vector @@ to_tsquery('simple', :prefixQuery)
+               OR :text <% search_text
+            ORDER BY ts_rank_cd(search_vector, to_tsquery('simple', :prefixQuery)) DESC,
+                     word_similarity(:text, search_text) DESC,
+                     id
+            """, nativeQuery = true)
+    Slice<Book> search(
+        @Param("prefixQuery") String prefixQuery,
+        @Param("text") String text,
+        Pageable pageable);
+
     class BookSpecifications {
         public static Specification<Book> authorIs(String author) {
             return (root, query, builder) -> {
@@ -28,5 +58,47 @@ public interface BookRepository extends JpaRepository<Book, UUID>, JpaSpecificat
                 return root.get("id").in(ids);
             };
         }
+
+        public static Specification<Book> categoryIn(Collection<String> categories) {
+            return (root, query, builder) -> {
+                return root.get("category").in(categories);
+            };
+        }
+
+        public static Specification<Book> fieldIs(String field, Object value) {
+            return (root, query, builder) -> {
+                return builder.equal(root.get(field), value);
+            };
+        }
+
+        public static Specification<Book> fieldIn(String field, Collection<?> values) {
+            return (root, query, builder) -> {
+                return root.get(field).in(values);
+            };
+        }
+
+        public static <Y extends Comparable<? super Y>> Specification<Book> fieldGreaterThan(String field, Y value) {
+            return (root, query, builder) -> {
+                return builder.greaterThan(root.<Y>get(field), value);
+            };
+        }
+
+        public static <Y extends Comparable<? super Y>> Specification<Book> fieldAtLeast(String field, Y value) {
+            return (root, query, builder) -> {
+                return builder.greaterThanOrEqualTo(root.<Y>get(field), value);
+            };
+        }
+
+        public static <Y extends Comparable<? super Y>> Specification<Book> fieldLessThan(String field, Y value) {
+            return (root, query, builder) -> {
+                return builder.lessThan(root.<Y>get(field), value);
+            };
+        }
+
+        public static <Y extends Comparable<? super Y>> Specification<Book> fieldAtMost(String field, Y value) {
+            return (root, query, builder) -> {
+                return builder.lessThanOrEqualTo(root.<Y>get(field), value);
+            };
+        }
     }
 }
@@ -0,0 +1,32 @@
+package com.adproc8.booku.booklist.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.adproc8.booku.booklist.model.Book;
+
+import jakarta.persistence.Tuple;
+
+public interface BookRepositoryCustom {
+
+    enum UpdateResult { UPDATED, UNCHANGED, NOT_FOUND }
+
+    List<UUID> updateRatings(Map<UUID, Float> ratings);
+    Map<UUID, UpdateResult> updateFields(Map<UUID, Map<String, Object>> changes);
+    <S extends Book> List<S> saveAllInBatch(List<S> books);
+    <S extends Book> List<S> insertAllInBatch(List<S> books);
+    List<Tuple> findAllFields(Specification<Book> spec, Sort sort, Collection<String> fields);
+    Slice<Tuple> findAllFields(Specification<Book> spec, Pageable pageable, Collection<String> fields);
+    Slice<Book> findSlice(Specification<Book> spec, Pageable pageable);
+    List<UUID> findIds(Specification<Book> spec, UUID after, int limit);
+    int deleteAllByIds(Collection<UUID> ids);
+    void forEach(Specification<Book> spec, int fetchSize, Consumer<Book> action);
+}
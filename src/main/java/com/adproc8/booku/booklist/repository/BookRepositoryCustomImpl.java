@@ -0,0 +1,571 @@
+package com.adproc8.booku.booklist.repository;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.adproc8.booku.booklist.model.Book;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+class BookRepositoryCustomImpl implements BookRepositoryCustom {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookRepositoryCustomImpl.class);
+
+    private static final String UPDATE_RATINGS_SQL = """
+            UPDATE book SET rating = v.rating
+            FROM unnest(?, ?) AS v(id, rating)
+            WHERE book.id = v.id AND book.rating <> v.rating
+            RETURNING book.id
+            """;
+
+    // Each column is sent as one array, so a chunk costs a single round trip
+    // and a single statement however many books it holds. An existing book is
+    // only overwritten when it still has the version the caller read.
+    private static final String UPSERT_SQL = """
+            INSERT INTO book (
+                id, title, author, publisher, price, publish_date, isbn,
+                page_count, photo_url, category, download_count, rating, version)
+            SELECT * FROM unnest(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (id) DO UPDATE SET
+                title = EXCLUDED.title,
+                author = EXCLUDED.author,
+                publisher = EXCLUDED.publisher,
+                price = EXCLUDED.price,
+                publish_date = EXCLUDED.publish_date,
+                isbn = EXCLUDED.isbn,
+                page_count = EXCLUDED.page_count,
+                photo_url = EXCLUDED.photo_url,
+                category = EXCLUDED.category,
+                download_count = EXCLUDED.download_count,
+                rating = EXCLUDED.rating,
+                version = book.version + 1
+            WHERE book.version = EXCLUDED.version
+            RETURNING id, version
+            """;
+
+    private static final String INSERT_IGNORING_DUPLICATES_SQL = """
+            INSERT INTO book (
+                id, title, author, publisher, price, publish_date, isbn,
+                page_count, photo_url, category, download_count, rating, version)
+            SELECT * FROM unnest(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT DO NOTHING
+            RETURNING id
+            """;
+
+    private record Column(String name, String type, Class<?> javaType) {}
+
+    // The fields a partial update may change, in the order they are written.
+    private static final Map<String, Column> UPDATABLE_COLUMNS = new LinkedHashMap<>();
+
+    static {
+        UPDATABLE_COLUMNS.put("publisher", new Column("publisher", "varchar", String.class));
+        UPDATABLE_COLUMNS.put("price", new Column("price", "int4", Integer.class));
+        UPDATABLE_COLUMNS.put("publishDate", new Column("publish_date", "date", Date.class));
+        UPDATABLE_COLUMNS.put("isbn", new Column("isbn", "varchar", String.class));
+        UPDATABLE_COLUMNS.put("pageCount", new Column("page_count", "int4", Integer.class));
+        UPDATABLE_COLUMNS.put("photoUrl", new Column("photo_url", "varchar", String.class));
+        UPDATABLE_COLUMNS.put("category", new Column("category", "varchar", String.class));
+        UPDATABLE_COLUMNS.put("downloadCount", new Column("download_count", "int4", Integer.class));
+    }
+
+    private static final String DELETE_BY_IDS_SQL = "DELETE FROM book WHERE id = ANY(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final int bulkWriteBatchSize;
+    private final Timer bulkWriteTimer;
+    private final Counter bulkWriteRows;
+
+    @Autowired
+    BookRepositoryCustomImpl(
+        JdbcTemplate jdbcTemplate,
+        EntityManager entityManager,
+        MeterRegistry meterRegistry,
+        @Value("${book.bulk-write.batch-size:5000}") int bulkWriteBatchSize)
+    {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.bulkWriteBatchSize = bulkWriteBatchSize;
+        this.bulkWriteTimer = meterRegistry.timer("book.bulk-write");
+        this.bulkWriteRows = meterRegistry.counter("book.bulk-write.rows");
+    }
+
+    /**
+     * Inserts or overwrites the given books in chunks of one statement each,
+     * bypassing the persistence context. Books without an ID are assigned
+     * one. When a book appears more than once, the last copy wins. The books
+     * are given their new versions.
+     *
+     * @throws OptimisticLockingFailureException if a book has been changed
+     *         since the caller read it, in which case nothing is written
+     */
+    @Transactional
+    public <S extends Book> List<S> saveAllInBatch(List<S> books) throws DataAccessException {
+        Map<UUID, S> booksById = new LinkedHashMap<>();
+
+        for (S book : withIds(books)) {
+            booksById.put(book.getId(), book);
+        }
+
+        List<S> rows = List.copyOf(booksById.values());
+        Map<UUID, Long> versions = new HashMap<>();
+        long start = System.nanoTime();
+
+        for (List<S> chunk : chunksOf(rows)) {
+            jdbcTemplate.query(
+                    connection -> unnestStatement(connection, UPSERT_SQL, chunk),
+                    resultSet -> {
+                        versions.put(resultSet.getObject(1, UUID.class), resultSet.getLong(2));
+                    });
+        }
+
+        List<UUID> conflicts = rows.stream()
+                .map(Book::getId)
+                .filter(id -> !versions.containsKey(id))
+                .toList();
+
+        if (!conflicts.isEmpty()) {
+            throw new OptimisticLockingFailureException(
+                    conflicts.size() + " books were changed concurrently: " + conflicts);
+        }
+
+        recordBulkWrite(rows.size(), System.nanoTime() - start);
+
+        for (S book : books) {
+            book.setVersion(versions.get(book.getId()));
+        }
+        return books;
+    }
+
+    /**
+     * Inserts the given books in chunks of one statement each, skipping any
+     * that would violate a unique constraint, such as a book with the same
+     * title and author. Books without an ID are assigned one.
+     *
+     * @return the books that were inserted
+     */
+    @Transactional
+    public <S extends Book> List<S> insertAllInBatch(List<S> books) throws DataAccessException {
+        List<S> rows = withIds(books);
+        Set<UUID> insertedIds = new HashSet<>();
+        long start = System.nanoTime();
+
+        for (List<S> chunk : chunksOf(rows)) {
+            insertedIds.addAll(jdbcTemplate.query(
+                    connection -> unnestStatement(connection, INSERT_IGNORING_DUPLICATES_SQL, chunk),
+                    (resultSet, rowNum) -> resultSet.getObject(1, UUID.class)));
+        }
+
+        recordBulkWrite(insertedIds.size(), System.nanoTime() - start);
+
+        return rows.stream()
+                .filter(book -> insertedIds.contains(book.getId()))
+                .toList();
+    }
+
+    private static <S extends Book> List<S> withIds(List<S> books) {
+        for (S book : books) {
+            if (book == null) {
+                throw new IllegalArgumentException("Entity must not be null");
+            }
+            if (book.getId() == null) {
+                book.setId(UUID.randomUUID());
+            }
+        }
+        return books;
+    }
+
+    private <S> List<List<S>> chunksOf(List<S> rows) {
+        List<List<S>> chunks = new ArrayList<>();
+        for (int from = 0; from < rows.size(); from += bulkWriteBatchSize) {
+            chunks.add(rows.subList(from, Math.min(from + bulkWriteBatchSize, rows.size())));
+        }
+        return chunks;
+    }
+
+    private void recordBulkWrite(int rows, long elapsed) {
+        bulkWriteTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        bulkWriteRows.increment(rows);
+
+        if (logger.isDebugEnabled() && elapsed > 0) {
+            logger.debug("Wrote {} books in {} ms ({} rows/s)",
+                    rows, TimeUnit.NANOSECONDS.toMillis(elapsed),
+                    rows * TimeUnit.SECONDS.toNanos(1) / elapsed);
+        }
+    }
+
+    private static PreparedStatement unnestStatement(
+        Connection connection, String sql, List<? extends Book> books) throws SQLException
+    {
+        int size = books.size();
+        UUID[] ids = new UUID[size];
+        String[] titles = new String[size];
+        String[] authors = new String[size];
+        String[] publishers = new String[size];
+        Integer[] prices = new Integer[size];
+        Date[] publishDates = new Date[size];
+        String[] isbns = new String[size];
+        Integer[] pageCounts = new Integer[size];
+        String[] photoUrls = new String[size];
+        String[] categories = new String[size];
+        Integer[] downloadCounts = new Integer[size];
+        Float[] ratings = new Float[size];
+        Long[] versions = new Long[size];
+
+        for (int i = 0; i < size; i++) {
+            Book book = books.get(i);
+            ids[i] = book.getId();
+            titles[i] = book.getTitle();
+            authors[i] = book.getAuthor();
+            publishers[i] = book.getPublisher();
+            prices[i] = book.getPrice();
+            publishDates[i] = book.getPublishDate();
+            isbns[i] = book.getIsbn();
+            pageCounts[i] = book.getPageCount();
+            photoUrls[i] = book.getPhotoUrl();
+            categories[i] = book.getCategory();
+            downloadCounts[i] = book.getDownloadCount();
+            ratings[i] = book.getRating();
+            versions[i] = book.getVersion();
+        }
+
+        Array[] columns = {
+            connection.createArrayOf("uuid", ids),
+            connection.createArrayOf("varchar", titles),
+            connection.createArrayOf("varchar", authors),
+            connection.createArrayOf("varchar", publishers),
+            connection.createArrayOf("int4", prices),
+            connection.createArrayOf("date", publishDates),
+            connection.createArrayOf("varchar", isbns),
+            connection.createArrayOf("int4", pageCounts),
+            connection.createArrayOf("varchar", photoUrls),
+            connection.createArrayOf("varchar", categories),
+            connection.createArrayOf("int4", downloadCounts),
+            connection.createArrayOf("float4", ratings),
+            connection.createArrayOf("int8", versions),
+        };
+
+        PreparedStatement statement = connection.prepareStatement(sql);
+        for (int i = 0; i < columns.length; i++) {
+            statement.setArray(i + 1, columns[i]);
+        }
+        return statement;
+    }
+
+    @Transactional
+    public List<UUID> updateRatings(Map<UUID, Float> ratings) throws DataAccessException {
+        if (ratings.isEmpty()) {
+            return List.of();
+        }
+
+        UUID[] ids = new UUID[ratings.size()];
+        Float[] values = new Float[ratings.size()];
+
+        int i = 0;
+        for (Map.Entry<UUID, Float> entry : ratings.entrySet()) {
+            ids[i] = entry.getKey();
+            values[i] = entry.getValue();
+            i++;
+        }
+
+        return jdbcTemplate.query(connection -> {
+            Array idArray = connection.createArrayOf("uuid", ids);
+            Array ratingArray = connection.createArrayOf("float4", values);
+
+            PreparedStatement statement = connection.prepareStatement(UPDATE_RATINGS_SQL);
+            statement.setArray(1, idArray);
+            statement.setArray(2, ratingArray);
+            return statement;
+        }, (resultSet, rowNum) -> resultSet.getObject(1, UUID.class));
+    }
+
+    /**
+     * Finds the IDs of the matching books in ID order, starting after
+     * {@code after} unless it is null, so that large result sets can be
+     * walked a chunk at a time.
+     */
+    @Transactional(readOnly = true)
+    public List<UUID> findIds(Specification<Book> spec, UUID after, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UUID> query = builder.createQuery(UUID.class);
+        Root<Book> root = query.from(Book.class);
+
+        query.select(root.get("id"));
+
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate predicate = spec.toPredicate(root, query, builder);
+        if (predicate != null) {
+            predicates.add(predicate);
+        }
+        if (after != null) {
+            predicates.add(builder.greaterThan(root.get("id"), after));
+        }
+        query.where(predicates.toArray(Predicate[]::new));
+        query.orderBy(builder.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Transactional
+    public int deleteAllByIds(Collection<UUID> ids) throws DataAccessException {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        UUID[] idArray = ids.toArray(UUID[]::new);
+
+        return jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(DELETE_BY_IDS_SQL);
+            statement.setArray(1, connection.createArrayOf("uuid", idArray));
+            return statement;
+        });
+    }
+
+    /**
+     * Streams the matching books in ID order from a database cursor, fetching
+     * {@code fetchSize} rows at a time. Each book is detached once handed to
+     * {@code action}, so memory use does not grow with the number of books.
+     */
+    @Transactional(readOnly = true)
+    public void forEach(Specification<Book> spec, int fetchSize, Consumer<Book> action) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Book> query = builder.createQuery(Book.class);
+        Root<Book> root = query.from(Book.class);
+
+        Predicate predicate = spec.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(builder.asc(root.get("id")));
+
+        try (Stream<Book> books = entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream())
+        {
+            books.forEach(book -> {
+                action.accept(book);
+                entityManager.detach(book);
+            });
+        }
+    }
+
+    /**
+     * Applies partial updates to many books at once. Each entry maps a book
+     * ID to the fields to set on it; other columns are left untouched. Books
+     * changing the same set of fields share one statement, and a book whose
+     * fields already hold the given values is not written at all.
+     *
+     * @return the outcome for each book, in the order given
+     */
+    @Transactional
+    public Map<UUID, UpdateResult> updateFields(Map<UUID, Map<String, Object>> changes)
+        throws DataAccessException, IllegalArgumentException
+    {
+        Map<List<String>, List<UUID>> idsByFields = new LinkedHashMap<>();
+
+        for (Map.Entry<UUID, Map<String, Object>> change : changes.entrySet()) {
+            for (String field : change.getValue().keySet()) {
+                if (!UPDATABLE_COLUMNS.containsKey(field)) {
+                    throw new IllegalArgumentException("Field '" + field + "' cannot be updated");
+                }
+            }
+
+            List<String> fields = UPDATABLE_COLUMNS.keySet().stream()
+                    .filter(change.getValue()::containsKey)
+                    .toList();
+            idsByFields.computeIfAbsent(fields, key -> new ArrayList<>()).add(change.getKey());
+        }
+
+        Map<UUID, UpdateResult> outcomes = new HashMap<>();
+
+        idsByFields.forEach((fields, ids) -> jdbcTemplate.query(
+                connection -> updateFieldsStatement(connection, fields, ids, changes),
+                resultSet -> {
+                    UUID id = resultSet.getObject(1, UUID.class);
+                    outcomes.put(id, resultSet.getBoolean(2) ? UpdateResult.UPDATED
+                            : resultSet.getBoolean(3) ? UpdateResult.UNCHANGED
+                            : UpdateResult.NOT_FOUND);
+                }));
+
+        Map<UUID, UpdateResult> results = new LinkedHashMap<>();
+        changes.keySet().forEach(id -> results.put(id, outcomes.get(id)));
+        return results;
+    }
+
+    private static PreparedStatement updateFieldsStatement(
+        Connection connection, List<String> fields,
+        List<UUID> ids, Map<UUID, Map<String, Object>> changes) throws SQLException
+    {
+        List<Column> columns = fields.stream().map(UPDATABLE_COLUMNS::get).toList();
+
+        PreparedStatement statement = connection.prepareStatement(updateFieldsSql(columns));
+        statement.setArray(1, connection.createArrayOf("uuid", ids.toArray(UUID[]::new)));
+
+        for (int i = 0; i < columns.size(); i++) {
+            Column column = columns.get(i);
+            Object[] values = (Object[]) java.lang.reflect.Array.newInstance(column.javaType(), ids.size());
+
+            for (int j = 0; j < ids.size(); j++) {
+                values[j] = column.javaType().cast(changes.get(ids.get(j)).get(fields.get(i)));
+            }
+
+            statement.setArray(i + 2, connection.createArrayOf(column.type(), values));
+        }
+
+        return statement;
+    }
+
+    /**
+     * Builds a statement that sets the given columns from arrays of IDs and
+     * values, skipping rows that would not change, and reports for each ID
+     * whether its row was updated and whether it exists.
+     */
+    private static String updateFieldsSql(List<Column> columns) {
+        if (columns.isEmpty()) {
+            return """
+                    SELECT patch.id, false, book.id IS NOT NULL
+                    FROM unnest(?) AS patch(id)
+                    LEFT JOIN book ON book.id = patch.id
+                    """;
+        }
+
+        String names = columns.stream()
+                .map(Column::name)
+                .collect(Collectors.joining(", "));
+        String assignments = columns.stream()
+                .map(column -> column.name() + " = patch." + column.name())
+                .collect(Collectors.joining(", "));
+        String current = columns.stream()
+                .map(column -> "book." + column.name())
+                .collect(Collectors.joining(", "));
+        String patched = columns.stream()
+                .map(column -> "patch." + column.name())
+                .collect(Collectors.joining(", "));
+
+        return """
+                WITH patch AS (
+                    SELECT * FROM unnest(?%s) AS patch(id, %s)
+                ), updated AS (
+                    UPDATE book SET %s, version = book.version + 1
+                    FROM patch
+                    WHERE book.id = patch.id AND (%s) IS DISTINCT FROM (%s)
+                    RETURNING book.id
+                )
+                SELECT patch.id, updated.id IS NOT NULL, book.id IS NOT NULL
+                FROM patch
+                LEFT JOIN updated ON updated.id = patch.id
+                LEFT JOIN book ON book.id = patch.id
+                """.formatted(", ?".repeat(columns.size()), names, assignments, current, patched);
+    }
+
+    /**
+     * Selects only the given fields of the matching books. Each tuple element
+     * is aliased by its field name. The results are not managed entities, so
+     * they are neither tracked nor dirty-checked.
+     */
+    @Transactional(readOnly = true)
+    public List<Tuple> findAllFields(Specification<Book> spec, Sort sort, Collection<String> fields) {
+        return fieldsQuery(spec, sort, fields).getResultList();
+    }
+
+    @Transactional(readOnly = true)
+    public Slice<Tuple> findAllFields(Specification<Book> spec, Pageable pageable, Collection<String> fields) {
+        return sliceOf(fieldsQuery(spec, pageable.getSort(), fields), pageable);
+    }
+
+    /**
+     * Returns one page of the matching books without counting them.
+     */
+    @Transactional(readOnly = true)
+    public Slice<Book> findSlice(Specification<Book> spec, Pageable pageable) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Book> query = builder.createQuery(Book.class);
+        Root<Book> root = query.from(Book.class);
+
+        Predicate predicate = spec.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, builder));
+
+        return sliceOf(entityManager.createQuery(query), pageable);
+    }
+
+    /**
+     * Reads one row past the page to tell whether another page follows,
+     * rather than counting every match.
+     */
+    private static <T> Slice<T> sliceOf(TypedQuery<T> query, Pageable pageable) {
+        query.setFirstResult((int) pageable.getOffset());
+        query.setMaxResults(pageable.getPageSize() + 1);
+
+        List<T> results = query.getResultList();
+        boolean hasNext = results.size() > pageable.getPageSize();
+
+        return new SliceImpl<>(hasNext ? results.subList(0, pageable.getPageSize()) : results,
+                pageable, hasNext);
+    }
+
+    private TypedQuery<Tuple> fieldsQuery(Specification<Book> spec, Sort sort, Collection<String> fields) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Book> root = query.from(Book.class);
+
+        query.multiselect(fields.stream()
+                .<Selection<?>>map(field -> root.get(field).alias(field))
+                .toList());
+
+        Predicate predicate = spec.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, builder));
+
+        return entityManager.createQuery(query);
+    }
+}
@@ -0,0 +1,475 @@
+package com.adproc8.booku.booklist.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.adproc8.booku.booklist.config.ReadYourWrites;
+import com.adproc8.booku.booklist.dto.BookSuggestionDto;
+import com.adproc8.booku.booklist.model.Book;
+import com.adproc8.booku.booklist.repository.BookRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * In-memory prefix index over book titles and authors for autocomplete.
+ *
+ * <p>Titles and authors are normalized (accents stripped, lower-cased,
+ * punctuation collapsed to spaces) and indexed under every word they
+ * contain, so "pot" finds "Harry Potter". Suggestions are ranked by
+ * download count. The best suggestions for every prefix of up to
+ * {@code book.autocomplete.prefix-length} characters are kept ready, so
+ * the short prefixes shared by most of the catalog are answered without
+ * walking it; longer prefixes only walk the few keys that share them.
+ *
+ * <p>The index is built from the database once the application is ready
+ * and kept up to date through the {@link BookChangeBus}. Changed books are
+ * collected as they are published and re-read in batches off the writer's
+ * thread, always from the primary, as a replica may not have the change
+ * yet. Writes are serialized; lookups never block.
+ */
+@Component
+class BookAutocomplete implements BookChangeBus.Listener {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookAutocomplete.class);
+
+    enum Field { TITLE, AUTHOR }
+
+    private record Suggestion(UUID bookId, Field field, String text, int weight) {}
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Comparator<Suggestion> RANKING = Comparator
+            .comparingInt(Suggestion::weight).reversed()
+            .thenComparingInt(suggestion -> suggestion.text().length())
+            .thenComparing(Suggestion::text);
+
+    // Rough cost of a skip-list node with its index levels and key header,
+    // and of a suggestion record with its reference in the key's array.
+    private static final int KEY_OVERHEAD_BYTES = 96;
+    private static final int SUGGESTION_OVERHEAD_BYTES = 48;
+
+    private final BookRepository bookRepository;
+    private final int buildBatchSize;
+    private final int perKeyLimit;
+    private final int prefixLength;
+
+    private final ConcurrentNavigableMap<String, Suggestion[]> index = new ConcurrentSkipListMap<>();
+    private final Map<String, Suggestion[]> topByPrefix = new ConcurrentHashMap<>();
+    private final Set<String> stalePrefixes = new HashSet<>();
+    private final ReentrantLock indexLock = new ReentrantLock();
+    private final Map<UUID, List<Suggestion>> indexedBooks = new ConcurrentHashMap<>();
+    private final Set<UUID> pendingChanges = ConcurrentHashMap.newKeySet();
+    private final AtomicLong estimatedBytes = new AtomicLong();
+    private final AtomicBoolean built = new AtomicBoolean();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    @Autowired
+    BookAutocomplete(
+        BookRepository bookRepository,
+        BookChangeBus bookChangeBus,
+        MeterRegistry meterRegistry,
+        @Value("${book.autocomplete.build-batch-size:1000}") int buildBatchSize,
+        @Value("${book.autocomplete.per-key-limit:20}") int perKeyLimit,
+        @Value("${book.autocomplete.prefix-length:3}") int prefixLength)
+    {
+        this.bookRepository = bookRepository;
+        this.buildBatchSize = buildBatchSize;
+        this.perKeyLimit = perKeyLimit;
+        this.prefixLength = prefixLength;
+
+        Gauge.builder("book.autocomplete.keys", index, Map::size)
+                .register(meterRegistry);
+        Gauge.builder("book.autocomplete.prefixes", topByPrefix, Map::size)
+                .register(meterRegistry);
+        Gauge.builder("book.autocomplete.books", indexedBooks, Map::size)
+                .register(meterRegistry);
+        Gauge.builder("book.autocomplete.memory", estimatedBytes, AtomicLong::get)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("book.autocomplete.memory.per-book", this, BookAutocomplete::bytesPerBook)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+
+        bookChangeBus.subscribe(this);
+    }
+
+    /**
+     * Returns up to {@code limit} titles and authors containing a word that
+     * starts with {@code prefix}, at most {@code book.autocomplete.per-key-limit}.
+     */
+    List<BookSuggestionDto> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+
+        Suggestion[] ranked = normalized.length() <= prefixLength
+                ? topByPrefix.getOrDefault(normalized, new Suggestion[0])
+                : collect(normalized, limit);
+
+        return Arrays.stream(ranked)
+                .limit(limit)
+                .map(BookAutocomplete::toDto)
+                .toList();
+    }
+
+    /**
+     * Ranks the suggestions of every key starting with {@code prefix}. Each
+     * key keeps its suggestions ranked, so only its best
+     * {@code book.autocomplete.per-key-limit} are considered.
+     */
+    private Suggestion[] collect(String prefix, int limit) {
+        // One suggestion per distinct title or author, keeping the most
+        // downloaded book for each.
+        Map<String, Suggestion> candidates = new HashMap<>();
+
+        for (Suggestion[] suggestions : index.subMap(prefix, prefix + Character.MAX_VALUE).values()) {
+            for (int i = 0; i < Math.min(suggestions.length, perKeyLimit); i++) {
+                Suggestion suggestion = suggestions[i];
+                candidates.merge(suggestion.field() + suggestion.text(), suggestion,
+                        (current, other) -> RANKING.compare(current, other) <= 0 ? current : other);
+            }
+        }
+
+        return candidates.values().stream()
+                .sorted(RANKING)
+                .limit(limit)
+                .toArray(Suggestion[]::new);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void build() {
+        rebuild();
+        built.set(true);
+    }
+
+    public void booksChanged(Collection<UUID> bookIds) {
+        pendingChanges.addAll(bookIds);
+    }
+
+    /**
+     * Re-reads the books changed since the last run, each at most once,
+     * and updates the index with them.
+     */
+    @Scheduled(fixedDelayString = "${book.autocomplete.update-interval-ms:500}")
+    void applyChanges() {
+        while (!pendingChanges.isEmpty()) {
+            Set<UUID> batch = drain();
+
+            try {
+                Set<UUID> removed = new HashSet<>(batch);
+                List<Book> books = ReadYourWrites.onPrimary(() -> bookRepository.findAllById(batch));
+
+                for (Book book : books) {
+                    index(book);
+                    removed.remove(book.getId());
+                }
+
+                removed.forEach(this::remove);
+                refreshStalePrefixes();
+            } catch (DataAccessException ex) {
+                logger.warn("Failed to update autocomplete for {} books: {}", batch.size(), ex.getMessage());
+                pendingChanges.addAll(batch);
+                return;
+            }
+        }
+    }
+
+    private Set<UUID> drain() {
+        Set<UUID> batch = new HashSet<>();
+
+        for (UUID bookId : pendingChanges) {
+            if (batch.size() >= buildBatchSize) {
+                break;
+            }
+            if (pendingChanges.remove(bookId)) {
+                batch.add(bookId);
+            }
+        }
+
+        return batch;
+    }
+
+    public void changesMissed() {
+        if (built.get() && rebuilding.compareAndSet(false, true)) {
+            Thread.ofPlatform()
+                    .name("book-autocomplete-rebuild")
+                    .daemon()
+                    .start(() -> {
+                        try {
+                            rebuild();
+                        } finally {
+                            rebuilding.set(false);
+                        }
+                    });
+        }
+    }
+
+    private void rebuild() {
+        Set<UUID> present = new HashSet<>();
+        ScrollPosition position = ScrollPosition.keyset();
+        Window<Book> window;
+
+        do {
+            ScrollPosition from = position;
+            window = ReadYourWrites.onPrimary(() -> bookRepository.findBy(
+                    Specification.where(null), query -> query
+                            .sortBy(Sort.by("id"))
+                            .limit(buildBatchSize)
+                            .scroll(from)));
+
+            for (Book book : window) {
+                index(book);
+                present.add(book.getId());
+            }
+
+            if (!window.isEmpty()) {
+                position = window.positionAt(window.size() - 1);
+            }
+        } while (window.hasNext());
+
+        indexedBooks.keySet().stream()
+                .filter(bookId -> !present.contains(bookId))
+                .toList()
+                .forEach(this::remove);
+        refreshStalePrefixes();
+
+        logger.info("Indexed {} books for autocomplete in ~{} KiB",
+                indexedBooks.size(), estimatedBytes.get() / 1024);
+    }
+
+    private void index(Book book) {
+        indexLock.lock();
+        try {
+            remove(book.getId());
+
+            List<Suggestion> suggestions = new ArrayList<>(2);
+            if (book.getTitle() != null) {
+                suggestions.add(new Suggestion(book.getId(), Field.TITLE, book.getTitle(), book.getDownloadCount()));
+            }
+            if (book.getAuthor() != null) {
+                suggestions.add(new Suggestion(book.getId(), Field.AUTHOR, book.getAuthor(), book.getDownloadCount()));
+            }
+
+            for (Suggestion suggestion : suggestions) {
+                for (String key : keysOf(suggestion.text())) {
+                    Suggestion[] current = index.get(key);
+
+                    if (current == null) {
+                        index.put(key, new Suggestion[] { suggestion });
+                        estimatedBytes.addAndGet(key.length() + KEY_OVERHEAD_BYTES);
+                    } else {
+                        // Kept in ranking order, so lookups can stop early.
+                        int position = Arrays.binarySearch(current, suggestion, RANKING);
+                        int at = position < 0 ? -position - 1 : position;
+
+                        Suggestion[] updated = new Suggestion[current.length + 1];
+                        System.arraycopy(current, 0, updated, 0, at);
+                        updated[at] = suggestion;
+                        System.arraycopy(current, at, updated, at + 1, current.length - at);
+                        index.put(key, updated);
+                    }
+                    estimatedBytes.addAndGet(Long.BYTES);
+
+                    for (String prefix : prefixesOf(key)) {
+                        offer(prefix, suggestion);
+                    }
+                }
+                estimatedBytes.addAndGet(suggestion.text().length() + SUGGESTION_OVERHEAD_BYTES);
+            }
+
+            indexedBooks.put(book.getId(), suggestions);
+        } finally {
+            indexLock.unlock();
+        }
+    }
+
+    private void remove(UUID bookId) {
+        indexLock.lock();
+        try {
+            List<Suggestion> suggestions = indexedBooks.remove(bookId);
+            if (suggestions == null) {
+                return;
+            }
+
+            for (Suggestion suggestion : suggestions) {
+                for (String key : keysOf(suggestion.text())) {
+                    Suggestion[] current = index.get(key);
+                    if (current == null) {
+                        continue;
+                    }
+
+                    Suggestion[] updated = Arrays.stream(current)
+                            .filter(other -> other != suggestion)
+                            .toArray(Suggestion[]::new);
+
+                    if (updated.length == 0) {
+                        index.remove(key);
+                        estimatedBytes.addAndGet(-(key.length() + KEY_OVERHEAD_BYTES));
+                    } else {
+                        index.put(key, updated);
+                    }
+                    estimatedBytes.addAndGet(-Long.BYTES);
+
+                    for (String prefix : prefixesOf(key)) {
+                        withdraw(prefix, suggestion);
+                    }
+                }
+                estimatedBytes.addAndGet(-(suggestion.text().length() + SUGGESTION_OVERHEAD_BYTES));
+            }
+        } finally {
+            indexLock.unlock();
+        }
+    }
+
+    /**
+     * Adds a suggestion to the best of a prefix if it ranks among them.
+     */
+    private void offer(String prefix, Suggestion suggestion) {
+        Suggestion[] current = topByPrefix.getOrDefault(prefix, new Suggestion[0]);
+        List<Suggestion> updated = new ArrayList<>(current.length + 1);
+
+        for (Suggestion other : current) {
+            if (other.field() == suggestion.field() && other.text().equals(suggestion.text())) {
+                if (RANKING.compare(other, suggestion) <= 0) {
+                    return;
+                }
+                continue;
+            }
+            updated.add(other);
+        }
+
+        int position = Collections.binarySearch(updated, suggestion, RANKING);
+        int at = position < 0 ? -position - 1 : position;
+        if (at >= perKeyLimit) {
+            return;
+        }
+
+        updated.add(at, suggestion);
+        if (updated.size() > perKeyLimit) {
+            updated.remove(updated.size() - 1);
+        }
+        putTop(prefix, current, updated.toArray(Suggestion[]::new));
+    }
+
+    /**
+     * Drops a suggestion from the best of a prefix. The list cannot tell
+     * what ranked next, so it is recomputed once the batch is applied.
+     */
+    private void withdraw(String prefix, Suggestion suggestion) {
+        Suggestion[] current = topByPrefix.get(prefix);
+        if (current == null || Arrays.stream(current).noneMatch(other -> other == suggestion)) {
+            return;
+        }
+
+        stalePrefixes.add(prefix);
+        putTop(prefix, current, Arrays.stream(current)
+                .filter(other -> other != suggestion)
+                .toArray(Suggestion[]::new));
+    }
+
+    private void refreshStalePrefixes() {
+        indexLock.lock();
+        try {
+            for (String prefix : stalePrefixes) {
+                putTop(prefix, topByPrefix.get(prefix), collect(prefix, perKeyLimit));
+            }
+            stalePrefixes.clear();
+        } finally {
+            indexLock.unlock();
+        }
+    }
+
+    private void putTop(String prefix, Suggestion[] current, Suggestion[] updated) {
+        int currentLength = current == null ? 0 : current.length;
+
+        if (updated.length == 0) {
+            if (topByPrefix.remove(prefix) != null) {
+                estimatedBytes.addAndGet(-(prefix.length() + KEY_OVERHEAD_BYTES));
+            }
+        } else if (topByPrefix.put(prefix, updated) == null) {
+            estimatedBytes.addAndGet(prefix.length() + KEY_OVERHEAD_BYTES);
+        }
+        estimatedBytes.addAndGet((long) (updated.length - currentLength) * Long.BYTES);
+    }
+
+    private double bytesPerBook() {
+        int books = indexedBooks.size();
+        return books == 0 ? 0 : (double) estimatedBytes.get() / books;
+    }
+
+    /**
+     * Returns the normalized text starting at each of its words.
+     */
+    private static Set<String> keysOf(String text) {
+        String normalized = normalize(text);
+        Set<String> keys = new HashSet<>();
+
+        int start = 0;
+        while (!normalized.isEmpty()) {
+            keys.add(normalized.substring(start));
+
+            int space = normalized.indexOf(' ', start);
+            if (space < 0) {
+                break;
+            }
+            start = space + 1;
+        }
+
+        return keys;
+    }
+
+    private List<String> prefixesOf(String key) {
+        List<String> prefixes = new ArrayList<>(prefixLength);
+        for (int length = 1; length <= Math.min(key.length(), prefixLength); length++) {
+            prefixes.add(key.substring(0, length));
+        }
+        return prefixes;
+    }
+
+    static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFKD);
+        String unaccented = MARKS.matcher(decomposed).replaceAll("");
+
+        return NON_WORD.matcher(unaccented.toLowerCase(Locale.ROOT)).replaceAll(" ").strip();
+    }
+
+    private static BookSuggestionDto toDto(Suggestion suggestion) {
+        UUID bookId = suggestion.field() == Field.TITLE ? suggestion.bookId() : null;
+        return new BookSuggestionDto(suggestion.text(), suggestion.field().name().toLowerCase(Locale.ROOT), bookId);
+    }
+}
@@ -0,0 +1,124 @@
+package com.adproc8.booku.booklist.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.adproc8.booku.booklist.model.Book;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Read-through cache of books by ID.
+ *
+ * <p>The cache keeps its own copies of the books it holds and hands out a
+ * fresh copy on every hit, so callers are free to modify what they get back.
+ * Entries are evicted once the cache is full or past their TTL, and are
+ * invalidated whenever the {@link BookChangeBus} reports a write to the book,
+ * whichever instance made it.
+ *
+ * <p>A load that overlaps an invalidation is not cached, as it may have read
+ * the book before the write was committed.
+ */
+@Component
+class BookCache implements BookChangeBus.Listener {
+
+    private final Cache<UUID, Book> cache;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Autowired
+    BookCache(
+        BookChangeBus bookChangeBus,
+        MeterRegistry meterRegistry,
+        @Value("${book.cache.max-size:10000}") long maxSize,
+        @Value("${book.cache.ttl:5m}") Duration ttl)
+    {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "book");
+        bookChangeBus.subscribe(this);
+    }
+
+    Optional<Book> get(UUID bookId, Function<UUID, Optional<Book>> loader) {
+        Book cached = cache.getIfPresent(bookId);
+        if (cached != null) {
+            return Optional.of(copyOf(cached));
+        }
+
+        long stamp = invalidations.get();
+        Optional<Book> loaded = loader.apply(bookId);
+
+        if (stamp == invalidations.get()) {
+            loaded.ifPresent(book -> cache.put(bookId, copyOf(book)));
+        }
+
+        return loaded;
+    }
+
+    List<Book> getAll(List<UUID> bookIds, Function<List<UUID>, List<Book>> loader) {
+        Map<UUID, Book> cached = cache.getAllPresent(bookIds);
+
+        List<Book> books = new ArrayList<>(bookIds.size());
+        Set<UUID> missing = new LinkedHashSet<>();
+
+        for (UUID bookId : bookIds) {
+            Book book = cached.get(bookId);
+            if (book != null) {
+                books.add(copyOf(book));
+            } else {
+                missing.add(bookId);
+            }
+        }
+
+        if (missing.isEmpty()) {
+            return books;
+        }
+
+        long stamp = invalidations.get();
+        List<Book> loaded = loader.apply(List.copyOf(missing));
+
+        if (stamp == invalidations.get()) {
+            loaded.forEach(book -> cache.put(book.getId(), copyOf(book)));
+        }
+
+        if (books.isEmpty()) {
+            return loaded;
+        }
+
+        books.addAll(loaded);
+        return books;
+    }
+
+    public void booksChanged(Collection<UUID> bookIds) {
+        invalidations.incrementAndGet();
+        cache.invalidateAll(bookIds);
+    }
+
+    public void changesMissed() {
+        invalidations.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    private static Book copyOf(Book book) {
+        return book.toBuilder().build();
+    }
+}
@@ -0,0 +1,30 @@
+package com.adproc8.booku.booklist.service;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Broadcasts which books have been written so that every instance of the
+ * service can evict them from its caches.
+ */
+interface BookChangeBus {
+
+    /**
+     * Notifies every subscriber, on this instance and the others, that the
+     * given books have been created, updated or deleted.
+     */
+    void publish(Collection<UUID> bookIds);
+
+    void subscribe(Listener listener);
+
+    interface Listener {
+
+        void booksChanged(Collection<UUID> bookIds);
+
+        /**
+         * Called when changes may have been missed, for example while the
+         * bus was reconnecting.
+         */
+        void changesMissed();
+    }
+}
@@ -1,25 +1,49 @@
 package com.adproc8.booku.booklist.service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 
+import com.adproc8.booku.booklist.dto.BookSuggestionDto;
+import com.adproc8.booku.booklist.dto.BookViewDto;
 import com.adproc8.booku.booklist.model.Book;
+import com.adproc8.booku.booklist.repository.BookRepositoryCustom.UpdateResult;
 
 public interface BookService {
     Book save(Book book);
     List<Book> saveAll(List<Book> books);
+    List<Book> insertAll(List<Book> books);
+    Map<UUID, UpdateResult> updateAll(Map<UUID, Map<String, Object>> changes);
     Optional<Book> findById(UUID bookId);
+    Optional<Book> findLatestById(UUID bookId);
     List<Book> findAll();
     List<Book> findAll(Sort sort);
     List<Book> findAll(Specification<Book> spec);
     List<Book> findAll(Specification<Book> spec, Sort sort);
+    Slice<Book> findAll(Specification<Book> spec, Pageable pageable);
+    Window<Book> findAll(Specification<Book> spec, Sort sort, KeysetScrollPosition position, int limit);
+    List<BookViewDto> findAll(Specification<Book> spec, Sort sort, Set<String> fields);
+    Slice<BookViewDto> findAll(Specification<Book> spec, Pageable pageable, Set<String> fields);
+    Window<BookViewDto> findAll(Specification<Book> spec, Sort sort, KeysetScrollPosition position, int limit, Set<String> fields);
+    Slice<Book> search(String query, Pageable pageable);
+    List<BookSuggestionDto> suggest(String prefix, int limit);
     List<Book> findAllById(Iterable<UUID> ids);
     List<Book> findAllById(Set<UUID> ids, Specification<Book> spec);
+    List<BookViewDto> findAllViewsById(Iterable<UUID> ids, Set<String> fields);
+    void forEach(Specification<Book> spec, Consumer<Book> action);
     void deleteById(UUID bookId);
     void deleteAll(List<Book> books);
+    long deleteAllById(Collection<UUID> ids, boolean dryRun);
+    long deleteAll(Specification<Book> spec, boolean dryRun);
 }
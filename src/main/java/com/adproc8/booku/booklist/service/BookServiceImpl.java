@@ -2,221 +2,386 @@ package com.adproc8.booku.booklist.service;
 
 import static com.adproc8.booku.booklist.repository.BookRepository.BookSpecifications.idIn;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
-import org.springframework.data.domain.Sort.Order;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClient;
-import org.springframework.web.client.RestClientException;
+import org.springframework.transaction.annotation.Transactional;
 
-import com.adproc8.booku.booklist.dto.RatingByBookIdDto;
+import com.adproc8.booku.booklist.config.ReadYourWrites;
+import com.adproc8.booku.booklist.dto.BookSuggestionDto;
+import com.adproc8.booku.booklist.dto.BookViewDto;
 import com.adproc8.booku.booklist.model.Book;
 import com.adproc8.booku.booklist.repository.BookRepository;
+import com.adproc8.booku.booklist.repository.BookRepositoryCustom.UpdateResult;
 
 @Service
 class BookServiceImpl implements BookService {
 
-    private static final ParameterizedTypeReference<List<RatingByBookIdDto>> REVIEW_LIST_TYPE =
-            new ParameterizedTypeReference<List<RatingByBookIdDto>>() {};
-    private static final String GET_RATINGS_GROUP_BY_BOOK_ID_PATH =
-            "/api/reviews/rating/by/book-id";
+    private static final Logger logger = LoggerFactory.getLogger(BookServiceImpl.class);
 
-    private final String reviewHost;
+    private static final Pattern SEARCH_TERM_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
 
     private final BookRepository bookRepository;
-    private final RestClient restClient;
+    private final BookCache bookCache;
+    private final BookChangeBus bookChangeBus;
+    private final BookAutocomplete bookAutocomplete;
+    private final RatingEnricher ratingEnricher;
+    private final int streamFetchSize;
+    private final int deleteBatchSize;
 
     @Autowired
     BookServiceImpl(
-        BookRepository bookRepository, RestClient restClient,
-        @Value("${api.review-host}") String reviewHost)
+        BookRepository bookRepository, BookCache bookCache,
+        BookChangeBus bookChangeBus, BookAutocomplete bookAutocomplete,
+        RatingEnricher ratingEnricher,
+        @Value("${book.export.fetch-size:1000}") int streamFetchSize,
+        @Value("${book.bulk-delete.batch-size:1000}") int deleteBatchSize)
     {
         this.bookRepository = bookRepository;
-        this.restClient = restClient;
-        this.reviewHost = reviewHost;
+        this.bookCache = bookCache;
+        this.bookChangeBus = bookChangeBus;
+        this.bookAutocomplete = bookAutocomplete;
+        this.ratingEnricher = ratingEnricher;
+        this.streamFetchSize = streamFetchSize;
+        this.deleteBatchSize = deleteBatchSize;
     }
 
-    private List<RatingByBookIdDto> getReviewDtos() {
-        List<RatingByBookIdDto> reviewDtos = restClient.get()
-                .uri(reviewHost,
-                        builder -> builder
-                                .path(GET_RATINGS_GROUP_BY_BOOK_ID_PATH)
-                                .build())
-                .retrieve()
-                .toEntity(REVIEW_LIST_TYPE)
-                .getBody();
-
-        return reviewDtos;
+    public Book save(Book book) throws DataAccessException {
+        Book savedBook = bookRepository.save(book);
+        bookChangeBus.publish(List.of(savedBook.getId()));
+        return savedBook;
     }
 
-    private List<RatingByBookIdDto> getReviewDtos(Sort sort) {
-        Order order = sort.get()
-                .findFirst()
-                .get();
-
-        List<RatingByBookIdDto> reviewDtos = restClient.get()
-                .uri(reviewHost,
-                        builder -> builder
-                                .path(GET_RATINGS_GROUP_BY_BOOK_ID_PATH)
-                                .queryParam("orderBy", order.getDirection())
-                                .build())
-                .retrieve()
-                .toEntity(REVIEW_LIST_TYPE)
-                .getBody();
+    public List<Book> saveAll(List<Book> books) throws DataAccessException {
+        List<Book> savedBooks = bookRepository.saveAllInBatch(books);
+        bookChangeBus.publish(idsOf(savedBooks));
+        return savedBooks;
+    }
 
-        return reviewDtos;
+    public List<Book> insertAll(List<Book> books) throws DataAccessException {
+        List<Book> insertedBooks = bookRepository.insertAllInBatch(books);
+        bookChangeBus.publish(idsOf(insertedBooks));
+        return insertedBooks;
     }
 
-    private List<Book> updateBookRatings(
-        List<RatingByBookIdDto> reviewDtos,
-        Map<UUID, Book> bookIdToBookMap)
+    /**
+     * Sets the given fields on each book, leaving its other fields as they
+     * are, in a single transaction.
+     */
+    public Map<UUID, UpdateResult> updateAll(Map<UUID, Map<String, Object>> changes)
+        throws DataAccessException, IllegalArgumentException
     {
-        for (RatingByBookIdDto dto : reviewDtos) {
-            UUID bookId = dto.getBookId();
-            float averageRating = dto.getAverageRating();
+        Map<UUID, UpdateResult> results = bookRepository.updateFields(changes);
 
-            Optional.ofNullable(bookIdToBookMap.get(bookId))
-                    .ifPresent(book -> book.setRating(averageRating));
+        bookChangeBus.publish(results.entrySet().stream()
+                .filter(result -> result.getValue() == UpdateResult.UPDATED)
+                .map(Map.Entry::getKey)
+                .toList());
+
+        return results;
+    }
+
+    public Optional<Book> findById(UUID bookId) {
+        if (bookId == null) {
+            return bookRepository.findById(bookId);
         }
+        return bookCache.get(bookId, this::findLatestById);
+    }
 
-        List<Book> books = bookIdToBookMap.values()
-                .stream()
-                .toList();
+    /**
+     * Reads the book from the primary database, bypassing the cache, for
+     * callers that are about to write it back.
+     */
+    public Optional<Book> findLatestById(UUID bookId) {
+        return ReadYourWrites.onPrimary(() -> bookRepository.findById(bookId));
+    }
 
-        bookRepository.saveAll(books);
+    public List<Book> findAll() {
+        return ratingEnricher.withCachedRatings(
+                () -> bookRepository.findAll(),
+                books -> books);
+    }
 
-        return books;
+    @Transactional(readOnly = true)
+    public List<Book> findAll(Sort sort) {
+        return bookRepository.findAll(sort);
     }
 
-    private List<Book> findAllOrderByRating(Sort sort)
-    throws RestClientException
+    public List<Book> findAll(Specification<Book> spec) {
+        return ratingEnricher.withCachedRatings(
+                () -> bookRepository.findAll(spec),
+                books -> books);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Book> findAll(Specification<Book> spec, Sort sort) {
+        return bookRepository.findAll(spec, sort);
+    }
+
+    public Slice<Book> findAll(Specification<Book> spec, Pageable pageable) {
+        Pageable stablePageable = stable(pageable);
+
+        return ratingEnricher.withCachedRatings(
+                () -> bookRepository.findSlice(spec, stablePageable),
+                Slice::getContent);
+    }
+
+    public Window<Book> findAll(
+        Specification<Book> spec, Sort sort,
+        KeysetScrollPosition position, int limit)
     {
-        List<RatingByBookIdDto> reviewDtos = getReviewDtos(sort);
+        return ratingEnricher.withCachedRatings(
+                () -> {
+                    Window<Book> window = bookRepository.findBy(spec, query -> query
+                            .sortBy(sort)
+                            .limit(limit)
+                            .scroll(position));
+
+                    // Positions are taken before ratings are overlaid so that cursors
+                    // carry the sort keys as stored in the database.
+                    List<ScrollPosition> positions = IntStream.range(0, window.size())
+                            .mapToObj(window::positionAt)
+                            .toList();
+
+                    return Window.from(window.getContent(), positions::get, window.hasNext());
+                },
+                Window::getContent);
+    }
+
+    public List<BookViewDto> findAll(Specification<Book> spec, Sort sort, Set<String> fields) {
+        Set<String> selected = withId(fields);
 
-        Map<UUID, Book> bookIdToBookMap = findAll().stream()
-                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        return withViewRatings(selected,
+                () -> bookRepository.findAllFields(spec, sort, selected).stream()
+                        .map(tuple -> BookViews.of(tuple, selected))
+                        .toList(),
+                views -> views);
+    }
 
-        updateBookRatings(reviewDtos, bookIdToBookMap);
+    public Slice<BookViewDto> findAll(Specification<Book> spec, Pageable pageable, Set<String> fields) {
+        Set<String> selected = withId(fields);
+        Pageable stablePageable = stable(pageable);
 
-        return bookRepository.findAll(sort);
+        return withViewRatings(selected,
+                () -> bookRepository.findAllFields(spec, stablePageable, selected)
+                        .map(tuple -> BookViews.of(tuple, selected)),
+                Slice::getContent);
     }
 
-    private List<Book> findAllOrderByRating(Specification<Book> spec, Sort sort)
-    throws RestClientException
+    public Window<BookViewDto> findAll(
+        Specification<Book> spec, Sort sort,
+        KeysetScrollPosition position, int limit, Set<String> fields)
     {
-        List<RatingByBookIdDto> reviewDtos = getReviewDtos(sort);
+        // Keyset positions are read from the entities, so the full rows are
+        // loaded and only the response is narrowed.
+        Set<String> selected = withId(fields);
 
-        Map<UUID, Book> bookIdToBookMap = findAll(spec).stream()
-                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        return findAll(spec, sort, position, limit)
+                .map(book -> BookViews.of(book, selected));
+    }
 
-        updateBookRatings(reviewDtos, bookIdToBookMap);
+    public Slice<Book> search(String query, Pageable pageable) throws IllegalArgumentException {
+        List<String> terms = SEARCH_TERM_SEPARATOR.splitAsStream(query.toLowerCase(Locale.ROOT))
+                .filter(term -> !term.isEmpty())
+                .toList();
 
-        return bookRepository.findAll(spec, sort);
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("search query must contain at least one word");
+        }
+
+        String prefixQuery = terms.stream()
+                .map(term -> term + ":*")
+                .collect(Collectors.joining(" & "));
+        String text = String.join(" ", terms);
+
+        return ratingEnricher.withCachedRatings(
+                () -> bookRepository.search(prefixQuery, text, pageable),
+                Slice::getContent);
     }
 
-    public Book save(Book book) throws DataAccessException {
-        return bookRepository.save(book);
+    public List<BookSuggestionDto> suggest(String prefix, int limit) {
+        return bookAutocomplete.suggest(prefix, limit);
     }
 
-    public List<Book> saveAll(List<Book> books) throws DataAccessException {
-        return bookRepository.saveAll(books);
+    public List<Book> findAllById(Iterable<UUID> ids) {
+        List<UUID> bookIds = new ArrayList<>();
+        ids.forEach(bookIds::add);
+
+        // Null IDs go straight to the repository, which rejects them. Cache
+        // misses are read from the primary, so that a book is never cached
+        // from a replica that has yet to see its latest change.
+        Supplier<List<Book>> query = bookIds.contains(null)
+                ? () -> bookRepository.findAllById(ids)
+                : () -> bookCache.getAll(bookIds, missing -> ReadYourWrites.onPrimary(
+                        () -> bookRepository.findAllById(missing)));
+
+        return ratingEnricher.withRatingsFor(bookIds, query, books -> books);
     }
 
-    public Optional<Book> findById(UUID bookId) {
-        return bookRepository.findById(bookId);
+    public List<BookViewDto> findAllViewsById(Iterable<UUID> ids, Set<String> fields) {
+        // Served from the book cache, so only the response is narrowed.
+        Set<String> selected = withId(fields);
+
+        return findAllById(ids).stream()
+                .map(book -> BookViews.of(book, selected))
+                .toList();
     }
 
-    public List<Book> findAll() {
-        List<RatingByBookIdDto> reviewDtos = getReviewDtos();
-        Map<UUID, Book> bookIdToBookMap = bookRepository.findAll()
-                .stream()
-                .collect(Collectors.toMap(Book::getId, Function.identity()));
-        List<Book> books = updateBookRatings(reviewDtos, bookIdToBookMap);
-        return books;
+    /**
+     * Hands each matching book to {@code action} as it is read, without
+     * loading them all first. Ratings are as last reconciled into the
+     * database rather than overlaid from the rating cache.
+     */
+    public void forEach(Specification<Book> spec, Consumer<Book> action) {
+        bookRepository.forEach(spec, streamFetchSize, action);
+    }
+
+    public List<Book> findAllById(Set<UUID> ids, Specification<Book> spec) {
+        Specification<Book> idSpec = spec.and(idIn(ids));
+
+        return ratingEnricher.withRatingsFor(ids,
+                () -> bookRepository.findAll(idSpec),
+                books -> books);
+    }
+
+    public void deleteById(UUID bookId) {
+        bookRepository.deleteById(bookId);
+        bookChangeBus.publish(List.of(bookId));
     }
 
-    public List<Book> findAll(Sort sort) throws RestClientException {
-        List<Book> books;
+    public void deleteAll(List<Book> books) {
+        bookRepository.deleteAllInBatch(books);
+        bookChangeBus.publish(idsOf(books));
+    }
+
+    /**
+     * Deletes the books with the given IDs a chunk at a time, each chunk in
+     * its own transaction, or only counts them on a dry run.
+     *
+     * @return the number of books deleted, or that would be
+     */
+    public long deleteAllById(Collection<UUID> ids, boolean dryRun) throws IllegalArgumentException {
+        if (ids.contains(null)) {
+            throw new IllegalArgumentException("bookIds must not contain null");
+        }
 
-        Order order = sort.get()
-                .findFirst()
-                .get();
+        List<UUID> bookIds = List.copyOf(new LinkedHashSet<>(ids));
+        long count = 0;
 
-        String property = order.getProperty();
+        for (int from = 0; from < bookIds.size(); from += deleteBatchSize) {
+            List<UUID> chunk = bookIds.subList(from, Math.min(from + deleteBatchSize, bookIds.size()));
 
-        if (property.equals("rating")) {
-            books = findAllOrderByRating(sort);
-        } else {
-            books = bookRepository.findAll(sort);
+            count += dryRun
+                    ? bookRepository.count(idIn(Set.copyOf(chunk)))
+                    : deleteChunk(chunk, count);
         }
 
-        return books;
+        return count;
     }
 
-    public List<Book> findAll(Specification<Book> spec) {
-        List<RatingByBookIdDto> reviewDtos = getReviewDtos();
-        Map<UUID, Book> bookIdToBookMap = bookRepository.findAll(spec)
-                .stream()
-                .collect(Collectors.toMap(Book::getId, Function.identity()));
-        List<Book> books = updateBookRatings(reviewDtos, bookIdToBookMap);
-        return books;
+    /**
+     * Deletes the matching books a chunk at a time, each chunk in its own
+     * transaction, or only counts them on a dry run. The books are never
+     * loaded; only their IDs are read, in order, to mark out the chunks.
+     *
+     * @return the number of books deleted, or that would be
+     */
+    public long deleteAll(Specification<Book> spec, boolean dryRun) {
+        if (dryRun) {
+            return bookRepository.count(spec);
+        }
+
+        long count = 0;
+        UUID after = null;
+        List<UUID> chunk;
+
+        do {
+            chunk = bookRepository.findIds(spec, after, deleteBatchSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+
+            count += deleteChunk(chunk, count);
+            after = chunk.get(chunk.size() - 1);
+        } while (chunk.size() == deleteBatchSize);
+
+        return count;
     }
 
-    public List<Book> findAll(Specification<Book> spec, Sort sort)
-    throws RestClientException
-    {
-        List<Book> books;
+    private int deleteChunk(List<UUID> bookIds, long deletedSoFar) {
+        int deleted = bookRepository.deleteAllByIds(bookIds);
+        bookChangeBus.publish(bookIds);
 
-        Order order = sort.get()
-                .findFirst()
-                .get();
-        String property = order.getProperty();
+        logger.info("Deleted {} books, {} so far", deleted, deletedSoFar + deleted);
+        return deleted;
+    }
 
-        if (property.equals("rating")) {
-            books = findAllOrderByRating(spec, sort);
-        } else {
-            books = bookRepository.findAll(spec, sort);
+    private <T> T withViewRatings(
+        Set<String> fields, Supplier<T> viewsQuery,
+        Function<T, ? extends Collection<BookViewDto>> viewsOf)
+    {
+        if (!fields.contains("rating")) {
+            return viewsQuery.get();
         }
 
-        return books;
+        return ratingEnricher.overlayCachedRatings(viewsQuery,
+                (result, ratings) -> BookViews.applyRatings(viewsOf.apply(result), ratings));
     }
 
-    public List<Book> findAllById(Iterable<UUID> ids) {
-        List<RatingByBookIdDto> reviewDtos = getReviewDtos();
-        Map<UUID, Book> bookIdToBookMap = bookRepository.findAllById(ids)
-                .stream()
-                .collect(Collectors.toMap(Book::getId, Function.identity()));
-        List<Book> books = updateBookRatings(reviewDtos, bookIdToBookMap);
-        return books;
+    private static Set<String> withId(Set<String> fields) {
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add("id");
+        selected.addAll(fields);
+        return selected;
     }
 
-    public List<Book> findAllById(Set<UUID> ids, Specification<Book> spec) {
-        spec = spec.and(idIn(ids));
-        List<RatingByBookIdDto> reviewDtos = getReviewDtos();
-        Map<UUID, Book> bookIdToBookMap = bookRepository.findAll(spec)
-                .stream()
-                .collect(Collectors.toMap(Book::getId, Function.identity()));
-        List<Book> books = updateBookRatings(reviewDtos, bookIdToBookMap);
-        return books;
-    }
+    /**
+     * Adds the ID as a final sort key so that rows with equal sort keys keep
+     * the same order from one page to the next.
+     */
+    private static Pageable stable(Pageable pageable) {
+        Sort sort = pageable.getSort();
 
-    public void deleteById(UUID bookId) {
-        bookRepository.deleteById(bookId);
+        if (sort.getOrderFor("id") == null) {
+            sort = sort.and(Sort.by("id"));
+        }
+
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
     }
 
-    public void deleteAll(List<Book> books) {
-        bookRepository.deleteAllInBatch(books);
+    private static List<UUID> idsOf(List<Book> books) {
+        return books.stream()
+                .filter(Objects::nonNull)
+                .map(Book::getId)
+                .filter(Objects::nonNull)
+                .toList();
     }
 }
@@ -0,0 +1,79 @@
+package com.adproc8.booku.booklist.service;
+
+import java.sql.Date;
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+import com.adproc8.booku.booklist.dto.BookViewDto;
+import com.adproc8.booku.booklist.model.Book;
+
+import jakarta.persistence.Tuple;
+
+/**
+ * Builds {@link BookViewDto}s from query tuples or from full books.
+ */
+final class BookViews {
+
+    private BookViews() {}
+
+    static BookViewDto of(Tuple tuple, Set<String> fields) {
+        return of(fields, field -> tuple.get(field));
+    }
+
+    static BookViewDto of(Book book, Set<String> fields) {
+        return of(fields, field -> switch (field) {
+            case "id" -> book.getId();
+            case "title" -> book.getTitle();
+            case "author" -> book.getAuthor();
+            case "publisher" -> book.getPublisher();
+            case "price" -> book.getPrice();
+            case "publishDate" -> book.getPublishDate();
+            case "isbn" -> book.getIsbn();
+            case "pageCount" -> book.getPageCount();
+            case "photoUrl" -> book.getPhotoUrl();
+            case "category" -> book.getCategory();
+            case "downloadCount" -> book.getDownloadCount();
+            case "rating" -> book.getRating();
+            default -> throw new IllegalArgumentException("Unknown field '" + field + "'");
+        });
+    }
+
+    /**
+     * Overlays ratings onto the views that include one.
+     */
+    static void applyRatings(Collection<BookViewDto> views, RatingTable ratings) {
+        for (BookViewDto view : views) {
+            float rating = ratings.get(view.getId());
+            if (view.getRating() != null && !Float.isNaN(rating)) {
+                view.setRating(rating);
+            }
+        }
+    }
+
+    private static BookViewDto of(Set<String> fields, Function<String, Object> valueOf) {
+        BookViewDto.BookViewDtoBuilder view = BookViewDto.builder();
+
+        for (String field : fields) {
+            Object value = valueOf.apply(field);
+            switch (field) {
+                case "id" -> view.id((UUID) value);
+                case "title" -> view.title((String) value);
+                case "author" -> view.author((String) value);
+                case "publisher" -> view.publisher((String) value);
+                case "price" -> view.price((Integer) value);
+                case "publishDate" -> view.publishDate((Date) value);
+                case "isbn" -> view.isbn((String) value);
+                case "pageCount" -> view.pageCount((Integer) value);
+                case "photoUrl" -> view.photoUrl((String) value);
+                case "category" -> view.category((String) value);
+                case "downloadCount" -> view.downloadCount((Integer) value);
+                case "rating" -> view.rating((Float) value);
+                default -> throw new IllegalArgumentException("Unknown field '" + field + "'");
+            }
+        }
+
+        return view.build();
+    }
+}
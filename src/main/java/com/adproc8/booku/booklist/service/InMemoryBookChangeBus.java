@@ -0,0 +1,31 @@
+package com.adproc8.booku.booklist.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Delivers book changes to subscribers of this instance only. Suitable for a
+ * single instance and for tests.
+ */
+@Component
+@ConditionalOnProperty(name = "book.change-bus.type", havingValue = "in-memory", matchIfMissing = true)
+class InMemoryBookChangeBus implements BookChangeBus {
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    public void publish(Collection<UUID> bookIds) {
+        if (bookIds.isEmpty()) {
+            return;
+        }
+        listeners.forEach(listener -> listener.booksChanged(bookIds));
+    }
+
+    public void subscribe(Listener listener) {
+        listeners.add(listener);
+    }
+}
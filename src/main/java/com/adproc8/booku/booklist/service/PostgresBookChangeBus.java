@@ -0,0 +1,190 @@
+package com.adproc8.booku.booklist.service;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Broadcasts book changes to every instance sharing the database through
+ * Postgres {@code LISTEN}/{@code NOTIFY}.
+ *
+ * <p>Changes are delivered to subscribers of this instance as soon as they
+ * are published, and to the other instances once the notification is
+ * received by their listener connection. Notifications are tagged with the
+ * instance that sent them, so that an instance does not deliver its own
+ * changes twice. The listener holds one connection
+ * for as long as the application runs. Whenever it has to reconnect,
+ * subscribers are told that changes may have been missed.
+ */
+@Component
+@ConditionalOnProperty(name = "book.change-bus.type", havingValue = "postgres")
+class PostgresBookChangeBus implements BookChangeBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresBookChangeBus.class);
+
+    static final String CHANNEL = "book_changes";
+
+    // Payloads are limited to 8000 bytes; the sender's ID and 200 book IDs
+    // take 7436.
+    static final int IDS_PER_NOTIFICATION = 200;
+
+    record Notification(UUID sender, List<UUID> bookIds) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final Duration pollTimeout;
+    private final Duration reconnectDelay;
+
+    private final UUID instanceId = UUID.randomUUID();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final Thread listenerThread;
+    private volatile boolean running = true;
+
+    @Autowired
+    PostgresBookChangeBus(
+        JdbcTemplate jdbcTemplate,
+        DataSource dataSource,
+        @Value("${book.change-bus.poll-timeout:1s}") Duration pollTimeout,
+        @Value("${book.change-bus.reconnect-delay:5s}") Duration reconnectDelay)
+    {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+        this.pollTimeout = pollTimeout;
+        this.reconnectDelay = reconnectDelay;
+        this.listenerThread = Thread.ofPlatform()
+                .name("book-change-listener")
+                .daemon()
+                .unstarted(this::listen);
+    }
+
+    @PostConstruct
+    void start() {
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        listenerThread.interrupt();
+    }
+
+    public void publish(Collection<UUID> bookIds) {
+        if (bookIds.isEmpty()) {
+            return;
+        }
+
+        listeners.forEach(listener -> listener.booksChanged(bookIds));
+
+        try {
+            for (String payload : encode(instanceId, bookIds)) {
+                jdbcTemplate.queryForRowSet("SELECT pg_notify(?, ?)", CHANNEL, payload);
+            }
+        } catch (DataAccessException ex) {
+            // The write has already been committed; other instances will
+            // catch up once their cache entries expire.
+            logger.warn("Failed to broadcast changes to {} books: {}", bookIds.size(), ex.getMessage());
+        }
+    }
+
+    public void subscribe(Listener listener) {
+        listeners.add(listener);
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                listeners.forEach(Listener::changesMissed);
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) pollTimeout.toMillis());
+                    if (notifications != null) {
+                        Arrays.stream(notifications).forEach(this::dispatch);
+                    }
+                }
+            } catch (SQLException ex) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Lost book change listener connection, reconnecting: {}", ex.getMessage());
+                try {
+                    Thread.sleep(reconnectDelay);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    void dispatch(PGNotification notification) {
+        Notification decoded;
+        try {
+            decoded = decode(notification.getParameter());
+        } catch (IllegalArgumentException ex) {
+            logger.warn("Ignoring malformed book change notification: {}", notification.getParameter());
+            return;
+        }
+
+        // Our own changes were delivered when they were published.
+        if (decoded.sender().equals(instanceId)) {
+            return;
+        }
+        listeners.forEach(listener -> listener.booksChanged(decoded.bookIds()));
+    }
+
+    static List<String> encode(UUID sender, Collection<UUID> bookIds) {
+        List<UUID> ids = List.copyOf(bookIds);
+        List<String> payloads = new ArrayList<>();
+
+        for (int from = 0; from < ids.size(); from += IDS_PER_NOTIFICATION) {
+            payloads.add(ids.subList(from, Math.min(from + IDS_PER_NOTIFICATION, ids.size()))
+                    .stream()
+                    .map(UUID::toString)
+                    .collect(Collectors.joining(",", sender + ":", "")));
+        }
+
+        return payloads;
+    }
+
+    static Notification decode(String payload) throws IllegalArgumentException {
+        int separator = payload.indexOf(':');
+        if (separator < 0) {
+            throw new IllegalArgumentException("missing sender: " + payload);
+        }
+
+        UUID sender = UUID.fromString(payload.substring(0, separator));
+        List<UUID> bookIds = Arrays.stream(payload.substring(separator + 1).split(","))
+                .map(UUID::fromString)
+                .toList();
+
+        return new Notification(sender, bookIds);
+    }
+}
@@ -0,0 +1,252 @@
+package com.adproc8.booku.booklist.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+
+import com.adproc8.booku.booklist.dto.RatingByBookIdDto;
+import com.adproc8.booku.booklist.dto.RatingChangesDto;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Caches the ratings of every book returned by the review service.
+ *
+ * <p>A snapshot younger than the refresh-ahead threshold is served as is.
+ * Once it crosses that threshold it is still served, but a reload is started
+ * in the background. Past the TTL it is served as stale for the
+ * stale-while-revalidate window while the reload runs. Only a snapshot older
+ * than both makes the caller wait for the review service, and if that call
+ * fails the caller still gets the last snapshot.
+ *
+ * <p>When the review service exposes rating changes, reloads after the first
+ * one only transfer the ratings changed since the watermark of the previous
+ * response and merge them into the current snapshot. Otherwise every reload
+ * transfers the full list.
+ */
+@Component
+class RatingCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatingCache.class);
+
+    private record Snapshot(RatingTable table, Instant watermark, long loadedAt) {}
+
+    private final ReviewClient reviewClient;
+    private final Executor refreshExecutor;
+    private final LongSupplier nanoTime;
+    private final boolean deltaSync;
+
+    private final long ttlNanos;
+    private final long refreshAheadNanos;
+    private final long staleWhileRevalidateNanos;
+
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile Snapshot snapshot;
+    private volatile boolean deltaSupported = true;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter staleHits;
+    private final Counter refreshFailures;
+    private final DistributionSummary deltaTransfers;
+    private final DistributionSummary fullTransfers;
+
+    @Autowired
+    RatingCache(
+        ReviewClient reviewClient,
+        @Qualifier("ratingExecutor") Executor refreshExecutor,
+        MeterRegistry meterRegistry,
+        @Value("${rating.cache.ttl:30s}") Duration ttl,
+        @Value("${rating.cache.refresh-ahead:20s}") Duration refreshAhead,
+        @Value("${rating.cache.stale-while-revalidate:5m}") Duration staleWhileRevalidate,
+        @Value("${rating.cache.delta-sync:true}") boolean deltaSync)
+    {
+        this(reviewClient, refreshExecutor, meterRegistry,
+                ttl, refreshAhead, staleWhileRevalidate, deltaSync, System::nanoTime);
+    }
+
+    RatingCache(
+        ReviewClient reviewClient, Executor refreshExecutor, MeterRegistry meterRegistry,
+        Duration ttl, Duration refreshAhead, Duration staleWhileRevalidate,
+        boolean deltaSync, LongSupplier nanoTime)
+    {
+        if (refreshAhead.compareTo(ttl) > 0) {
+            throw new IllegalArgumentException("rating.cache.refresh-ahead must not exceed rating.cache.ttl");
+        }
+
+        this.reviewClient = reviewClient;
+        this.refreshExecutor = refreshExecutor;
+        this.nanoTime = nanoTime;
+        this.deltaSync = deltaSync;
+        this.ttlNanos = ttl.toNanos();
+        this.refreshAheadNanos = refreshAhead.toNanos();
+        this.staleWhileRevalidateNanos = staleWhileRevalidate.toNanos();
+
+        this.hits = Counter.builder("rating.cache.requests")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("rating.cache.requests")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.staleHits = Counter.builder("rating.cache.requests")
+                .tag("result", "stale")
+                .register(meterRegistry);
+        this.refreshFailures = Counter.builder("rating.cache.refresh.failures")
+                .register(meterRegistry);
+        this.deltaTransfers = DistributionSummary.builder("rating.cache.refresh.ratings")
+                .tag("mode", "delta")
+                .register(meterRegistry);
+        this.fullTransfers = DistributionSummary.builder("rating.cache.refresh.ratings")
+                .tag("mode", "full")
+                .register(meterRegistry);
+
+        Gauge.builder("rating.cache.size", this, cache -> cache.current().size())
+                .register(meterRegistry);
+        Gauge.builder("rating.cache.age", this, RatingCache::ageSeconds)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the current ratings. If the review service cannot be reached
+     * the last loaded snapshot is returned, or an empty table if there is
+     * none, so that books fall back to their stored ratings.
+     */
+    RatingTable get() {
+        Snapshot current = snapshot;
+
+        if (current == null) {
+            misses.increment();
+            return loadOrFallback(null);
+        }
+
+        long age = nanoTime.getAsLong() - current.loadedAt();
+
+        if (age < refreshAheadNanos) {
+            hits.increment();
+        } else if (age < ttlNanos) {
+            hits.increment();
+            refreshAsync();
+        } else if (age < ttlNanos + staleWhileRevalidateNanos) {
+            staleHits.increment();
+            refreshAsync();
+        } else {
+            misses.increment();
+            return loadOrFallback(current);
+        }
+
+        return current.table();
+    }
+
+    /**
+     * Returns the last loaded snapshot without triggering a reload.
+     */
+    RatingTable current() {
+        Snapshot current = snapshot;
+        return current != null ? current.table() : RatingTable.EMPTY;
+    }
+
+    private RatingTable loadOrFallback(Snapshot expected) {
+        if (expected == null) {
+            loadLock.lock();
+        } else if (!loadLock.tryLock()) {
+            // A reload is already in flight; serve the old snapshot rather
+            // than queueing behind it.
+            return expected.table();
+        }
+
+        try {
+            Snapshot current = snapshot;
+            if (current != expected) {
+                return current.table();
+            }
+            return refresh().table();
+        } catch (RestClientException ex) {
+            refreshFailures.increment();
+            logger.warn("Failed to load rating cache, serving last known ratings: {}", ex.getMessage());
+            return current();
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private Snapshot refresh() throws RestClientException {
+        long startedAt = nanoTime.getAsLong();
+        Snapshot previous = snapshot;
+        Instant since = previous != null ? previous.watermark() : null;
+
+        Optional<RatingChangesDto> changes = Optional.empty();
+        if (deltaSync && deltaSupported && (previous == null || since != null)) {
+            changes = reviewClient.getRatingChanges(since);
+            deltaSupported = changes.isPresent();
+        }
+
+        Snapshot fresh;
+        if (changes.isPresent()) {
+            List<RatingByBookIdDto> changedRatings = Optional
+                    .ofNullable(changes.get().getRatings())
+                    .orElse(List.of());
+            RatingTable base = since != null ? previous.table() : RatingTable.EMPTY;
+
+            deltaTransfers.record(changedRatings.size());
+            fresh = new Snapshot(base.with(changedRatings), changes.get().getWatermark(), startedAt);
+        } else {
+            List<RatingByBookIdDto> reviewDtos = reviewClient.getRatings();
+
+            fullTransfers.record(reviewDtos.size());
+            fresh = new Snapshot(RatingTable.of(reviewDtos), null, startedAt);
+        }
+
+        snapshot = fresh;
+        return fresh;
+    }
+
+    private void refreshAsync() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    refresh();
+                } catch (RestClientException ex) {
+                    refreshFailures.increment();
+                    logger.warn("Failed to refresh rating cache: {}", ex.getMessage());
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            refreshing.set(false);
+        }
+    }
+
+    private double ageSeconds() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return Double.NaN;
+        }
+        long age = nanoTime.getAsLong() - current.loadedAt();
+        return (double) age / TimeUnit.SECONDS.toNanos(1);
+    }
+}
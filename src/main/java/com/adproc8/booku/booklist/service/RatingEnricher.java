@@ -0,0 +1,163 @@
+package com.adproc8.booku.booklist.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.adproc8.booku.booklist.model.Book;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Runs a book query and the matching rating fetch side by side. The query
+ * runs on the calling thread while the ratings are fetched on the fan-out
+ * executor; both share one deadline. If the fetch fails or misses the
+ * deadline, the last cached ratings are used and books not covered by them
+ * keep the rating stored in the database.
+ *
+ * <p>The query runs in a read-only transaction of its own, so Hibernate
+ * neither snapshots nor flushes the loaded books. The transaction ends
+ * before waiting on the ratings, so no connection is held while the review
+ * service is slow. It times out with the deadline, rounded up to whole
+ * seconds as transaction timeouts are.
+ */
+@Component
+class RatingEnricher {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatingEnricher.class);
+
+    private final RatingCache ratingCache;
+    private final RatingLookup ratingLookup;
+    private final Executor fanOutExecutor;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long deadlineNanos;
+
+    private final Timer databaseLeg;
+    private final Timer reviewLeg;
+    private final Counter deadlineExceeded;
+
+    @Autowired
+    RatingEnricher(
+        RatingCache ratingCache, RatingLookup ratingLookup,
+        @Qualifier("fanOutExecutor") Executor fanOutExecutor,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry,
+        @Value("${rating.fan-out.deadline:1s}") Duration deadline)
+    {
+        this.ratingCache = ratingCache;
+        this.ratingLookup = ratingLookup;
+        this.fanOutExecutor = fanOutExecutor;
+        this.deadlineNanos = deadline.toNanos();
+
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setTimeout(
+                (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(deadline.toMillis() + 999)));
+
+        this.databaseLeg = Timer.builder("book.fan-out.leg")
+                .tag("leg", "database")
+                .register(meterRegistry);
+        this.reviewLeg = Timer.builder("book.fan-out.leg")
+                .tag("leg", "review")
+                .register(meterRegistry);
+        this.deadlineExceeded = Counter.builder("book.fan-out.deadline-exceeded")
+                .register(meterRegistry);
+    }
+
+    <T> T withCachedRatings(
+        Supplier<T> booksQuery,
+        Function<T, ? extends Collection<Book>> booksOf)
+    {
+        return fanOut(booksQuery, reconcile(booksOf), ratingCache::get);
+    }
+
+    <T> T withRatingsFor(
+        Collection<UUID> bookIds, Supplier<T> booksQuery,
+        Function<T, ? extends Collection<Book>> booksOf)
+    {
+        return fanOut(booksQuery, reconcile(booksOf), () -> ratingLookup.lookup(bookIds));
+    }
+
+    /**
+     * Like {@link #withCachedRatings(Supplier, Function)}, for results that
+     * are not books and apply the ratings themselves.
+     */
+    <T> T overlayCachedRatings(Supplier<T> query, BiConsumer<T, RatingTable> applyRatings) {
+        return fanOut(query, applyRatings, ratingCache::get);
+    }
+
+    /**
+     * Overlays the fetched ratings on the loaded books in memory only;
+     * {@link RatingSync} is the one writer of {@code book.rating}.
+     */
+    private <T> BiConsumer<T, RatingTable> reconcile(Function<T, ? extends Collection<Book>> booksOf) {
+        return (result, ratings) -> {
+            for (Book book : booksOf.apply(result)) {
+                float rating = ratings.get(book.getId());
+                if (!Float.isNaN(rating)) {
+                    book.setRating(rating);
+                }
+            }
+        };
+    }
+
+    private <T> T fanOut(
+        Supplier<T> booksQuery,
+        BiConsumer<T, RatingTable> applyRatings,
+        Supplier<RatingTable> ratingsQuery)
+    {
+        long deadline = System.nanoTime() + deadlineNanos;
+
+        CompletableFuture<RatingTable> ratings = CompletableFuture.supplyAsync(
+                () -> reviewLeg.record(ratingsQuery), fanOutExecutor);
+
+        T result;
+        try {
+            result = databaseLeg.record(() -> readOnlyTransaction.execute(status -> booksQuery.get()));
+        } catch (RuntimeException ex) {
+            ratings.cancel(true);
+            throw ex;
+        }
+
+        applyRatings.accept(result, await(ratings, deadline));
+
+        return result;
+    }
+
+    private RatingTable await(CompletableFuture<RatingTable> ratings, long deadline) {
+        try {
+            return ratings.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            ratings.cancel(true);
+            deadlineExceeded.increment();
+            logger.warn("Rating fetch missed the fan-out deadline, using cached ratings");
+            return ratingCache.current();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            ratings.cancel(true);
+            return ratingCache.current();
+        } catch (ExecutionException ex) {
+            logger.warn("Rating fetch failed, using cached ratings: {}", ex.getCause().toString());
+            return ratingCache.current();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.adproc8.booku.booklist.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.adproc8.booku.booklist.dto.RatingByBookIdDto;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Fetches ratings for a known set of books only. IDs are split into bounded
+ * chunks that are requested concurrently; if any chunk fails or the lookup
+ * exceeds its timeout, the last cached snapshot is used instead. If the
+ * review service turns out to ignore the ID filter, every later lookup is
+ * served from the {@link RatingCache} rather than transferring all ratings
+ * per request.
+ */
+@Component
+class RatingLookup {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatingLookup.class);
+
+    private final ReviewClient reviewClient;
+    private final RatingCache ratingCache;
+    private final Executor lookupExecutor;
+    private final int chunkSize;
+    private final long timeoutMillis;
+
+    private final Counter fallbacks;
+
+    private volatile boolean filterSupported = true;
+
+    @Autowired
+    RatingLookup(
+        ReviewClient reviewClient, RatingCache ratingCache,
+        @Qualifier("ratingExecutor") Executor lookupExecutor,
+        MeterRegistry meterRegistry,
+        @Value("${rating.lookup.chunk-size:100}") int chunkSize,
+        @Value("${rating.lookup.timeout:300ms}") Duration timeout)
+    {
+        this.reviewClient = reviewClient;
+        this.ratingCache = ratingCache;
+        this.lookupExecutor = lookupExecutor;
+        this.chunkSize = chunkSize;
+        this.timeoutMillis = timeout.toMillis();
+        this.fallbacks = Counter.builder("rating.lookup.fallbacks")
+                .register(meterRegistry);
+    }
+
+    RatingTable lookup(Collection<UUID> bookIds) {
+        if (bookIds.isEmpty()) {
+            return RatingTable.EMPTY;
+        }
+        if (!filterSupported) {
+            return ratingCache.get();
+        }
+
+        List<CompletableFuture<Optional<List<RatingByBookIdDto>>>> futures = new ArrayList<>();
+        List<UUID> ids = List.copyOf(bookIds);
+
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<UUID> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> reviewClient.getRatings(chunk), lookupExecutor));
+        }
+
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                    .get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return fallback(futures, ex);
+        } catch (ExecutionException | TimeoutException ex) {
+            return fallback(futures, ex);
+        }
+
+        List<RatingByBookIdDto> ratings = new ArrayList<>();
+        for (CompletableFuture<Optional<List<RatingByBookIdDto>>> future : futures) {
+            Optional<List<RatingByBookIdDto>> chunkRatings = future.join();
+            if (chunkRatings.isEmpty()) {
+                filterSupported = false;
+                logger.warn("Review service ignores the bookId filter, using cached ratings from now on");
+                return ratingCache.get();
+            }
+            ratings.addAll(chunkRatings.get());
+        }
+
+        return RatingTable.of(ratings);
+    }
+
+    private RatingTable fallback(
+        List<CompletableFuture<Optional<List<RatingByBookIdDto>>>> futures,
+        Exception ex)
+    {
+        futures.forEach(future -> future.cancel(true));
+        fallbacks.increment();
+        logger.warn("Scoped rating lookup failed, using cached ratings: {}", ex.toString());
+        return ratingCache.current();
+    }
+}
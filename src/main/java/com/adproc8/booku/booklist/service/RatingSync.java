@@ -0,0 +1,107 @@
+package com.adproc8.booku.booklist.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+
+import com.adproc8.booku.booklist.repository.BookRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Keeps {@code book.rating} in step with the review service so that sorting
+ * by rating can be answered by a single indexed query. Each run writes only
+ * the ratings that differ from the previously synced snapshot, and reports
+ * the books it changed on the {@link BookChangeBus}.
+ *
+ * <p>This is the only writer of the column. Ratings are written without
+ * bumping the book's version, so a sync never fails a concurrent update.
+ */
+@Component
+class RatingSync {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatingSync.class);
+
+    private final RatingCache ratingCache;
+    private final BookRepository bookRepository;
+    private final BookChangeBus bookChangeBus;
+    private final int batchSize;
+
+    private final Counter syncedRatings;
+
+    private volatile RatingTable synced = RatingTable.EMPTY;
+
+    @Autowired
+    RatingSync(
+        RatingCache ratingCache, BookRepository bookRepository,
+        BookChangeBus bookChangeBus, MeterRegistry meterRegistry,
+        @Value("${rating.sync.batch-size:1000}") int batchSize)
+    {
+        this.ratingCache = ratingCache;
+        this.bookRepository = bookRepository;
+        this.bookChangeBus = bookChangeBus;
+        this.batchSize = batchSize;
+        this.syncedRatings = Counter.builder("rating.sync.updated")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${rating.sync.interval-ms:30000}")
+    void sync() {
+        RatingTable current;
+        try {
+            current = ratingCache.get();
+        } catch (RestClientException ex) {
+            logger.warn("Skipping rating sync, review service unavailable: {}", ex.getMessage());
+            return;
+        }
+
+        RatingTable previous = synced;
+        if (current == previous) {
+            return;
+        }
+
+        Map<UUID, Float> batch = new HashMap<>(batchSize);
+
+        try {
+            current.forEach((bookId, rating) -> {
+                if (Float.compare(previous.get(bookId), rating) == 0) {
+                    return;
+                }
+
+                batch.put(bookId, rating);
+                if (batch.size() >= batchSize) {
+                    write(batch);
+                }
+            });
+            write(batch);
+        } catch (DataAccessException ex) {
+            logger.error("Rating sync failed, will retry on next run", ex);
+            return;
+        }
+
+        synced = current;
+    }
+
+    private void write(Map<UUID, Float> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<UUID> updatedIds = bookRepository.updateRatings(Map.copyOf(batch));
+        batch.clear();
+
+        syncedRatings.increment(updatedIds.size());
+        bookChangeBus.publish(updatedIds);
+    }
+}
@@ -0,0 +1,133 @@
+package com.adproc8.booku.booklist.service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.UUID;
+
+import com.adproc8.booku.booklist.dto.RatingByBookIdDto;
+
+/**
+ * Immutable open-addressing map from book ID to average rating. Keys are
+ * stored as two {@code long} arrays and values as a {@code float} array, so
+ * a snapshot of the whole catalog costs about 40 bytes per book instead of
+ * the boxed {@code UUID}/{@code Float} entries of a {@code HashMap}.
+ */
+final class RatingTable {
+
+    interface RatingConsumer {
+        void accept(UUID bookId, float rating);
+    }
+
+    static final RatingTable EMPTY = new RatingTable(new long[1], new long[1], new float[] {Float.NaN}, 0);
+
+    private final long[] mostSigBits;
+    private final long[] leastSigBits;
+    private final float[] ratings;
+    private final int size;
+
+    private RatingTable(long[] mostSigBits, long[] leastSigBits, float[] ratings, int size) {
+        this.mostSigBits = mostSigBits;
+        this.leastSigBits = leastSigBits;
+        this.ratings = ratings;
+        this.size = size;
+    }
+
+    static RatingTable of(Collection<RatingByBookIdDto> reviewDtos) {
+        return EMPTY.with(reviewDtos);
+    }
+
+    /**
+     * Returns a copy of this table with the given ratings added or replaced.
+     */
+    RatingTable with(Collection<RatingByBookIdDto> changes) {
+        if (changes.isEmpty()) {
+            return this;
+        }
+
+        int capacity = Integer.highestOneBit((size + changes.size()) * 2 - 1) << 1;
+        long[] newMostSigBits = new long[capacity];
+        long[] newLeastSigBits = new long[capacity];
+        float[] newRatings = new float[capacity];
+        Arrays.fill(newRatings, Float.NaN);
+
+        int newSize = 0;
+        for (int slot = 0; slot < ratings.length; slot++) {
+            if (!Float.isNaN(ratings[slot])) {
+                newSize += put(newMostSigBits, newLeastSigBits, newRatings,
+                        new UUID(mostSigBits[slot], leastSigBits[slot]), ratings[slot]);
+            }
+        }
+
+        for (RatingByBookIdDto dto : changes) {
+            UUID bookId = dto.getBookId();
+            if (bookId == null || Float.isNaN(dto.getAverageRating())) {
+                continue;
+            }
+
+            newSize += put(newMostSigBits, newLeastSigBits, newRatings,
+                    bookId, dto.getAverageRating());
+        }
+
+        return new RatingTable(newMostSigBits, newLeastSigBits, newRatings, newSize);
+    }
+
+    private static int put(
+        long[] mostSigBits, long[] leastSigBits, float[] ratings,
+        UUID bookId, float rating)
+    {
+        int slot = slotOf(bookId, mostSigBits, leastSigBits, ratings);
+        int added = Float.isNaN(ratings[slot]) ? 1 : 0;
+
+        mostSigBits[slot] = bookId.getMostSignificantBits();
+        leastSigBits[slot] = bookId.getLeastSignificantBits();
+        ratings[slot] = rating;
+
+        return added;
+    }
+
+    /**
+     * Returns the rating of the given book, or {@code NaN} when the review
+     * service has no rating for it.
+     */
+    float get(UUID bookId) {
+        return ratings[slotOf(bookId, mostSigBits, leastSigBits, ratings)];
+    }
+
+    boolean contains(UUID bookId) {
+        return !Float.isNaN(get(bookId));
+    }
+
+    int size() {
+        return size;
+    }
+
+    void forEach(RatingConsumer consumer) {
+        for (int slot = 0; slot < ratings.length; slot++) {
+            if (!Float.isNaN(ratings[slot])) {
+                consumer.accept(new UUID(mostSigBits[slot], leastSigBits[slot]), ratings[slot]);
+            }
+        }
+    }
+
+    private static int slotOf(UUID bookId, long[] mostSigBits, long[] leastSigBits, float[] ratings) {
+        long msb = bookId.getMostSignificantBits();
+        long lsb = bookId.getLeastSignificantBits();
+        int mask = ratings.length - 1;
+        int slot = hash(msb, lsb) & mask;
+
+        while (!Float.isNaN(ratings[slot])
+                && (mostSigBits[slot] != msb || leastSigBits[slot] != lsb)) {
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    private static int hash(long msb, long lsb) {
+        long h = msb ^ lsb;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
@@ -0,0 +1,138 @@
+package com.adproc8.booku.booklist.service;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import com.adproc8.booku.booklist.dto.RatingByBookIdDto;
+import com.adproc8.booku.booklist.dto.RatingChangesDto;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+@Component
+class ReviewClient {
+
+    private static final ParameterizedTypeReference<List<RatingByBookIdDto>> REVIEW_LIST_TYPE =
+            new ParameterizedTypeReference<List<RatingByBookIdDto>>() {};
+    private static final String GET_RATINGS_GROUP_BY_BOOK_ID_PATH =
+            "/api/reviews/rating/by/book-id";
+    private static final String GET_RATING_CHANGES_PATH =
+            "/api/reviews/rating/by/book-id/changes";
+
+    private final String reviewHost;
+
+    private final RestClient restClient;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+
+    @Autowired
+    ReviewClient(
+        RestClient restClient,
+        CircuitBreaker circuitBreaker, Bulkhead bulkhead,
+        @Value("${api.review-host}") String reviewHost)
+    {
+        this.restClient = restClient;
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+        this.reviewHost = reviewHost;
+    }
+
+    /**
+     * Runs a call through the bulkhead and circuit breaker. Rejections are
+     * rethrown as {@link ResourceAccessException} so callers only have to
+     * handle {@link RestClientException}.
+     */
+    private <T> T guarded(Supplier<T> call) throws RestClientException {
+        try {
+            return Bulkhead.decorateSupplier(bulkhead,
+                    CircuitBreaker.decorateSupplier(circuitBreaker, call))
+                    .get();
+        } catch (CallNotPermittedException | BulkheadFullException ex) {
+            throw new ResourceAccessException(ex.getMessage());
+        }
+    }
+
+    List<RatingByBookIdDto> getRatings() throws RestClientException {
+        List<RatingByBookIdDto> reviewDtos = guarded(() -> restClient.get()
+                .uri(reviewHost,
+                        builder -> builder
+                                .path(GET_RATINGS_GROUP_BY_BOOK_ID_PATH)
+                                .build())
+                .retrieve()
+                .toEntity(REVIEW_LIST_TYPE)
+                .getBody());
+
+        return reviewDtos != null ? reviewDtos : List.of();
+    }
+
+    /**
+     * Fetches the ratings of the given books only. The review service is
+     * expected to filter {@code /rating/by/book-id} by the repeated
+     * {@code bookId} query parameters and omit books without reviews.
+     * Returns empty when the response holds a book that was not asked for,
+     * as a service that ignores the filter returns every rating instead.
+     */
+    Optional<List<RatingByBookIdDto>> getRatings(Collection<UUID> bookIds) throws RestClientException {
+        List<RatingByBookIdDto> reviewDtos = guarded(() -> restClient.get()
+                .uri(reviewHost,
+                        builder -> builder
+                                .path(GET_RATINGS_GROUP_BY_BOOK_ID_PATH)
+                                .queryParam("bookId", bookIds.toArray())
+                                .build())
+                .retrieve()
+                .toEntity(REVIEW_LIST_TYPE)
+                .getBody());
+
+        if (reviewDtos == null) {
+            return Optional.of(List.of());
+        }
+
+        Set<UUID> requested = new HashSet<>(bookIds);
+        boolean filtered = reviewDtos.stream()
+                .allMatch(reviewDto -> requested.contains(reviewDto.getBookId()));
+
+        return filtered ? Optional.of(reviewDtos) : Optional.empty();
+    }
+
+    /**
+     * Fetches the ratings that changed after {@code since}, or all ratings
+     * when {@code since} is null. Returns empty when the review service does
+     * not expose the changes endpoint.
+     */
+    Optional<RatingChangesDto> getRatingChanges(Instant since) throws RestClientException {
+        try {
+            RatingChangesDto changesDto = guarded(() -> restClient.get()
+                    .uri(reviewHost,
+                            builder -> {
+                                builder.path(GET_RATING_CHANGES_PATH);
+                                if (since != null) {
+                                    builder.queryParam("since", since);
+                                }
+                                return builder.build();
+                            })
+                    .retrieve()
+                    .body(RatingChangesDto.class));
+
+            return Optional.ofNullable(changesDto);
+        } catch (HttpClientErrorException.NotFound | HttpClientErrorException.MethodNotAllowed ex) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+-- Schema as previously created by Hibernate. Existing databases are
+-- baselined at this version and skip it.
+CREATE TABLE IF NOT EXISTS book (
+    id uuid PRIMARY KEY,
+    title varchar(255) NOT NULL,
+    author varchar(255) NOT NULL,
+    publisher varchar(255) NOT NULL,
+    price integer NOT NULL CHECK (price >= 0),
+    publish_date date NOT NULL,
+    isbn varchar(255) NOT NULL,
+    page_count integer NOT NULL CHECK (page_count >= 0),
+    photo_url varchar(255) NOT NULL,
+    category varchar(255) NOT NULL,
+    download_count integer NOT NULL CHECK (download_count >= 0),
+    rating real NOT NULL,
+    UNIQUE (title, author)
+);
+
+CREATE INDEX IF NOT EXISTS book_rating_idx ON book (rating);
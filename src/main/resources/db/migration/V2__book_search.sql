@@ -0,0 +1,18 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Weighted document for full-text matching: title ranks above author,
+-- author above publisher, publisher above category.
+ALTER TABLE book ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('simple', title), 'A') ||
+    setweight(to_tsvector('simple', author), 'B') ||
+    setweight(to_tsvector('simple', publisher), 'C') ||
+    setweight(to_tsvector('simple', category), 'D')
+) STORED;
+
+-- Lower-cased text of the same fields for trigram (typo-tolerant) matching.
+ALTER TABLE book ADD COLUMN search_text text GENERATED ALWAYS AS (
+    lower(title || ' ' || author || ' ' || publisher || ' ' || category)
+) STORED;
+
+CREATE INDEX book_search_vector_idx ON book USING gin (search_vector);
+CREATE INDEX book_search_text_trgm_idx ON book USING gin (search_text gin_trgm_ops);
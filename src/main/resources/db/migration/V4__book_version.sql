@@ -0,0 +1,2 @@
+-- Optimistic locking: every write to a book bumps its version.
+ALTER TABLE book ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
@@ -0,0 +1,78 @@
+package com.adproc8.booku.booklist.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import jakarta.servlet.http.Cookie;
+
+class ReadYourWritesInterceptorTest {
+
+    private final ReadYourWritesInterceptor interceptor = new ReadYourWritesInterceptor(Duration.ofSeconds(5));
+
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWrites.clear();
+    }
+
+    @Test
+    void testPreHandle_WriteRequiresPrimaryAndSetsCookie() {
+        MockHttpServletRequest request = new MockHttpServletRequest("PATCH", "/book/patch");
+
+        interceptor.preHandle(request, response, null);
+
+        assertTrue(ReadYourWrites.isPrimaryRequired());
+        Cookie cookie = response.getCookie(ReadYourWritesInterceptor.COOKIE_NAME);
+        assertNotNull(cookie);
+        assertTrue(Long.parseLong(cookie.getValue()) > System.currentTimeMillis());
+    }
+
+    @Test
+    void testPreHandle_ReadWithinWindowRequiresPrimary() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/book/1");
+        request.setCookies(new Cookie(ReadYourWritesInterceptor.COOKIE_NAME,
+                Long.toString(System.currentTimeMillis() + 5000)));
+
+        interceptor.preHandle(request, response, null);
+
+        assertTrue(ReadYourWrites.isPrimaryRequired());
+    }
+
+    @Test
+    void testPreHandle_ReadAfterWindowMayUseReplica() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/book/1");
+        request.setCookies(new Cookie(ReadYourWritesInterceptor.COOKIE_NAME,
+                Long.toString(System.currentTimeMillis() - 1)));
+
+        interceptor.preHandle(request, response, null);
+
+        assertFalse(ReadYourWrites.isPrimaryRequired());
+    }
+
+    @Test
+    void testPreHandle_ReadOnlyPostMayUseReplica() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/book/get-multiple");
+
+        interceptor.preHandle(request, response, null);
+
+        assertFalse(ReadYourWrites.isPrimaryRequired());
+        assertNull(response.getCookie(ReadYourWritesInterceptor.COOKIE_NAME));
+    }
+
+    @Test
+    void testAfterCompletion_ClearsFlag() {
+        MockHttpServletRequest request = new MockHttpServletRequest("DELETE", "/book/delete");
+
+        interceptor.preHandle(request, response, null);
+        interceptor.afterCompletion(request, response, null, null);
+
+        assertFalse(ReadYourWrites.isPrimaryRequired());
+    }
+}
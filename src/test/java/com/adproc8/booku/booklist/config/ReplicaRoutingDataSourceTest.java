@@ -0,0 +1,156 @@
+package com.adproc8.booku.booklist.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private HikariDataSource replica0;
+
+    @Mock
+    private HikariDataSource replica1;
+
+    @Mock
+    private HikariDataSource replica2;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // Lag reported by each replica; a missing entry means it is unreachable.
+    private final Map<String, Double> lags = new HashMap<>();
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() {
+        routingDataSource = new ReplicaRoutingDataSource(primary, List.of(replica0, replica1, replica2),
+                Duration.ofSeconds(5), meterRegistry) {
+
+            @Override
+            Double measureLag(String replicaKey, JdbcTemplate jdbcTemplate) {
+                Double lag = lags.get(replicaKey);
+                if (lag == null) {
+                    throw new DataAccessResourceFailureException("unreachable");
+                }
+                return lag;
+            }
+        };
+        routingDataSource.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWrites.clear();
+    }
+
+    @Test
+    void testRoutesToPrimaryBeforeReplicasAreChecked() {
+        assertEquals("primary", routingDataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void testSpreadsReadsOverHealthyReplicas() {
+        lags.put("replica-0", 0.0);
+        lags.put("replica-1", 1.0);
+        lags.put("replica-2", 5.0);
+
+        routingDataSource.checkReplicas();
+
+        assertEquals(List.of("replica-0", "replica-1", "replica-2", "replica-0"), List.of(
+                routingDataSource.determineCurrentLookupKey(),
+                routingDataSource.determineCurrentLookupKey(),
+                routingDataSource.determineCurrentLookupKey(),
+                routingDataSource.determineCurrentLookupKey()));
+        assertEquals(3, meterRegistry.get("datasource.replica.healthy").gauge().value());
+    }
+
+    @Test
+    void testSkipsLaggingAndUnreachableReplicas() {
+        lags.put("replica-0", 10.0);
+        lags.put("replica-2", 0.0);
+
+        routingDataSource.checkReplicas();
+
+        assertEquals("replica-2", routingDataSource.determineCurrentLookupKey());
+        assertEquals("replica-2", routingDataSource.determineCurrentLookupKey());
+        assertEquals(10.0, meterRegistry.get("datasource.replica.lag").tag("replica", "replica-0").gauge().value());
+        assertTrue(Double.isNaN(meterRegistry.get("datasource.replica.lag").tag("replica", "replica-1").gauge().value()));
+    }
+
+    @Test
+    void testReadmitsReplicaOnceCaughtUp() {
+        lags.put("replica-0", 10.0);
+        routingDataSource.checkReplicas();
+
+        assertEquals("primary", routingDataSource.determineCurrentLookupKey());
+
+        lags.put("replica-0", 0.0);
+        routingDataSource.checkReplicas();
+
+        assertEquals("replica-0", routingDataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void testRoutesToPrimaryWhenReadingOwnWrites() {
+        lags.put("replica-0", 0.0);
+        routingDataSource.checkReplicas();
+
+        ReadYourWrites.requirePrimary();
+
+        assertEquals("primary", routingDataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void testOnlyReadOnlyConnectionsReachReplicas() throws SQLException {
+        Connection primaryConnection = mock(Connection.class);
+        Connection replicaConnection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica0.getConnection()).thenReturn(replicaConnection);
+
+        lags.put("replica-0", 0.0);
+        routingDataSource.checkReplicas();
+
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(routingDataSource);
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setReadOnly(true);
+            connection.createStatement();
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            connection.createStatement();
+        }
+
+        verify(replicaConnection).createStatement();
+        verify(primaryConnection).createStatement();
+        verify(replica0, times(1)).getConnection();
+    }
+}
@@ -9,7 +9,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import java.sql.Date;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -23,8 +25,15 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
@@ -32,6 +41,7 @@ import org.springframework.web.context.WebApplicationContext;
 
 import com.adproc8.booku.booklist.dto.*;
 import com.adproc8.booku.booklist.model.Book;
+import com.adproc8.booku.booklist.repository.BookRepositoryCustom;
 import com.adproc8.booku.booklist.service.BookService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -72,7 +82,7 @@ class BookControllerTest {
     void testGetAllBooks_NoParams() {
         when(bookService.findAll(any(Specification.class))).thenReturn(dummyBooks);
 
-        List<Book> books = bookController.getAllBooks(Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty());
+        List<Book> books = bookController.getAllBooks(Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty());
 
         assertEquals(dummyBooks, books);
     }
@@ -81,7 +91,7 @@ class BookControllerTest {
     void testGetAllBooks_AuthorParam() {
         when(bookService.findAll(any(Specification.class))).thenReturn(dummyBooks);
 
-        List<Book> books = bookController.getAllBooks(Optional.of("Author 1"), Optional.empty(), Optional.empty(), Optional.empty());
+        List<Book> books = bookController.getAllBooks(Optional.of("Author 1"), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty());
 
         assertEquals(dummyBooks, books);
     }
@@ -90,7 +100,7 @@ class BookControllerTest {
     void testGetAllBooks_TitleParam() {
         when(bookService.findAll(any(Specification.class))).thenReturn(dummyBooks);
 
-        List<Book> books = bookController.getAllBooks(Optional.empty(), Optional.of("Title 1"), Optional.empty(), Optional.empty());
+        List<Book> books = bookController.getAllBooks(Optional.empty(), Optional.of("Title 1"), Optional.empty(), Optional.empty(), Optional.empty());
 
         assertEquals(dummyBooks, books);
     }
@@ -99,7 +109,7 @@ class BookControllerTest {
     void testGetAllBooks_SortParams() {
         when(bookService.findAll(any(Specification.class), any(Sort.class))).thenReturn(dummyBooks);
 
-        List<Book> books = bookController.getAllBooks(Optional.empty(), Optional.empty(), Optional.of("title"), Optional.of("asc"));
+        List<Book> books = bookController.getAllBooks(Optional.empty(), Optional.empty(), Optional.empty(), Optional.of("title"), Optional.of("asc"));
 
         assertEquals(dummyBooks, books);
     }
@@ -108,11 +118,125 @@ class BookControllerTest {
     void testGetAllBooks_AllParams() {
         when(bookService.findAll(any(Specification.class), any(Sort.class))).thenReturn(dummyBooks);
 
-        List<Book> books = bookController.getAllBooks(Optional.of("Author 1"), Optional.of("Title 1"), Optional.of("title"), Optional.of("asc"));
+        List<Book> books = bookController.getAllBooks(Optional.of("Author 1"), Optional.of("Title 1"), Optional.empty(), Optional.of("title"), Optional.of("asc"));
 
         assertEquals(dummyBooks, books);
     }
 
+    @Test
+    void testGetAllBooks_FilterParam() {
+        when(bookService.findAll(any(Specification.class))).thenReturn(dummyBooks);
+
+        List<Book> books = bookController.getAllBooks(Optional.empty(), Optional.empty(),
+                Optional.of("price <= 100000 and category in (fiction, poetry)"), Optional.empty(), Optional.empty());
+
+        assertEquals(dummyBooks, books);
+    }
+
+    @Test
+    void testGetAllBooks_InvalidFilter() throws Exception {
+        mockMvc.perform(get("/book").param("filter", "price >= cheap"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetAllBookViews() throws Exception {
+        when(bookService.findAll(any(Specification.class), any(Sort.class), eq(Set.of("title", "rating"))))
+                .thenReturn(List.of(BookViewDto.builder().id(UUID.randomUUID()).title("Title 1").rating(4.0f).build()));
+
+        mockMvc.perform(get("/book").param("fields", "title, rating"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("Title 1"))
+                .andExpect(jsonPath("$[0].rating").value(4.0))
+                .andExpect(jsonPath("$[0].author").doesNotExist());
+    }
+
+    @Test
+    void testGetAllBookViews_UnknownField() throws Exception {
+        mockMvc.perform(get("/book").param("fields", "title,secret"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetBooksPage_Offset() throws Exception {
+        when(bookService.findAll(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(dummyBooks, PageRequest.of(1, 2), true));
+
+        mockMvc.perform(get("/book").param("size", "2").param("page", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.books.length()").value(2))
+                .andExpect(jsonPath("$.page").value(1))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.nextCursor").isEmpty());
+    }
+
+    @Test
+    void testGetBooksPage_Keyset() throws Exception {
+        UUID lastId = UUID.randomUUID();
+        Window<Book> window = Window.from(dummyBooks,
+                index -> ScrollPosition.forward(Map.of("title", "Title 2", "id", lastId)), true);
+
+        when(bookService.findAll(any(Specification.class), any(Sort.class),
+                any(KeysetScrollPosition.class), eq(2)))
+                .thenReturn(window);
+
+        mockMvc.perform(get("/book")
+                        .param("size", "2")
+                        .param("sortBy", "title")
+                        .param("orderBy", "asc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.books.length()").value(2))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty());
+    }
+
+    @Test
+    void testGetBooksPage_InvalidCursor() throws Exception {
+        mockMvc.perform(get("/book").param("size", "2").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetBooksPage_SizeOutOfRange() throws Exception {
+        mockMvc.perform(get("/book").param("size", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testSearchBooks() throws Exception {
+        when(bookService.search("harry pot", PageRequest.of(0, 20)))
+                .thenReturn(new SliceImpl<>(dummyBooks, PageRequest.of(0, 20), true));
+
+        mockMvc.perform(get("/book/search").param("q", "harry pot"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.books.length()").value(2))
+                .andExpect(jsonPath("$.page").value(0))
+                .andExpect(jsonPath("$.hasNext").value(true));
+    }
+
+    @Test
+    void testSearchBooks_SizeOutOfRange() throws Exception {
+        mockMvc.perform(get("/book/search").param("q", "harry").param("size", "101"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testAutocomplete() throws Exception {
+        when(bookService.suggest("pot", 10)).thenReturn(List.of(
+                new BookSuggestionDto("Harry Potter", "title", UUID.randomUUID())));
+
+        mockMvc.perform(get("/book/autocomplete").param("q", "pot"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].text").value("Harry Potter"))
+                .andExpect(jsonPath("$[0].type").value("title"));
+    }
+
+    @Test
+    void testAutocomplete_LimitOutOfRange() throws Exception {
+        mockMvc.perform(get("/book/autocomplete").param("q", "pot").param("limit", "21"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testGetBookById() throws Exception {
         UUID bookId = UUID.randomUUID();
@@ -251,7 +375,7 @@ class BookControllerTest {
         UUID bookId = UUID.randomUUID();
         Book book = Book.builder().id(bookId).build();
 
-        when(bookService.findById(bookId)).thenReturn(Optional.of(book));
+        when(bookService.findLatestById(bookId)).thenReturn(Optional.of(book));
 
         when(patchBookDto.getPublisher()).thenReturn("New Publisher");
         when(patchBookDto.getPublishDate()).thenReturn(Date.valueOf("2022-01-01"));
@@ -264,13 +388,15 @@ class BookControllerTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(getBooksByIdDto)))
                 .andExpect(status().isOk());
+
+        verify(bookService, never()).findById(bookId);
     }
 
     @Test
     void testUpdateBookById_NotFound() throws Exception {
         UUID bookId = UUID.randomUUID();
 
-        when(bookService.findById(bookId)).thenReturn(Optional.empty());
+        when(bookService.findLatestById(bookId)).thenReturn(Optional.empty());
 
         mockMvc.perform(patch("/book/" + bookId)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -286,4 +412,172 @@ class BookControllerTest {
 
         verify(bookService, times(1)).deleteById(bookId);
     }
+
+    @Test
+    void testDeleteBooks_ByIds() throws Exception {
+        UUID bookId = UUID.randomUUID();
+        when(bookService.deleteAllById(List.of(bookId), false)).thenReturn(1L);
+
+        mockMvc.perform(delete("/book")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookIds\":[\"" + bookId + "\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(1))
+                .andExpect(jsonPath("$.dryRun").value(false));
+    }
+
+    @Test
+    void testDeleteBooks_ByFilterDryRun() throws Exception {
+        when(bookService.deleteAll(any(Specification.class), eq(true))).thenReturn(42L);
+
+        mockMvc.perform(delete("/book")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"filter\":\"rating < 1\",\"dryRun\":true}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(42))
+                .andExpect(jsonPath("$.dryRun").value(true));
+    }
+
+    @Test
+    void testDeleteBooks_RequiresExactlyOneSelector() throws Exception {
+        mockMvc.perform(delete("/book")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"dryRun\":true}"))
+                .andExpect(status().isBadRequest());
+
+        verify(bookService, never()).deleteAll(any(Specification.class), anyBoolean());
+        verify(bookService, never()).deleteAllById(any(), anyBoolean());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testUpdateMultipleBooksById_MapsPatchesById() throws Exception {
+        UUID bookId1 = UUID.randomUUID();
+        UUID bookId2 = UUID.randomUUID();
+
+        when(bookService.updateAll(any(Map.class))).thenReturn(Map.of(
+                bookId1, BookRepositoryCustom.UpdateResult.UPDATED));
+
+        String body = """
+                {"patchBookDtos": [
+                    {"id": "%s", "price": 100},
+                    {"id": "%s", "pageCount": -1},
+                    {"id": "%s", "isbn": "1234567890"}
+                ]}
+                """.formatted(bookId1, bookId2, bookId1);
+
+        mockMvc.perform(patch("/book")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(bookId1.toString()))
+                .andExpect(jsonPath("$[0].status").value("updated"))
+                .andExpect(jsonPath("$[1].id").value(bookId2.toString()))
+                .andExpect(jsonPath("$[1].status").value("invalid"));
+
+        verify(bookService, times(1)).updateAll(Map.of(
+                bookId1, Map.of("price", 100, "isbn", "1234567890")));
+    }
+
+    @Test
+    void testGetBookById_NotModified() throws Exception {
+        UUID bookId = UUID.randomUUID();
+        Book book = Book.builder().id(bookId).title("Title").version(3).build();
+
+        when(bookService.findById(bookId)).thenReturn(Optional.of(book));
+
+        String eTag = mockMvc.perform(get("/book/" + bookId))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/book/" + bookId).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        book.setVersion(4);
+
+        mockMvc.perform(get("/book/" + bookId).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testGetAllBooks_NotModified() throws Exception {
+        when(bookService.findAll(any(Specification.class))).thenReturn(dummyBooks);
+
+        String eTag = mockMvc.perform(get("/book"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/book").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void testGetAllBookViews_NotModified() throws Exception {
+        BookViewDto view = BookViewDto.builder().id(UUID.randomUUID()).title("Title 1").rating(4.0f).build();
+        when(bookService.findAll(any(Specification.class), any(Sort.class), eq(Set.of("title", "rating"))))
+                .thenReturn(List.of(view));
+
+        String eTag = mockMvc.perform(get("/book").param("fields", "title,rating"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/book").param("fields", "title,rating").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        view.setRating(4.5f);
+
+        mockMvc.perform(get("/book").param("fields", "title,rating").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testGetBooksPage_NotModified() throws Exception {
+        when(bookService.findAll(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(dummyBooks, PageRequest.of(0, 2), true))
+                .thenReturn(new SliceImpl<>(dummyBooks, PageRequest.of(0, 2), true))
+                .thenReturn(new SliceImpl<>(dummyBooks, PageRequest.of(0, 2), false));
+
+        String eTag = mockMvc.perform(get("/book").param("size", "2").param("page", "0"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/book").param("size", "2").param("page", "0").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/book").param("size", "2").param("page", "0").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testUpdateBookById_IfMatchFails() throws Exception {
+        UUID bookId = UUID.randomUUID();
+        Book book = Book.builder().id(bookId).version(2).build();
+
+        when(bookService.findLatestById(bookId)).thenReturn(Optional.of(book));
+
+        mockMvc.perform(patch("/book/" + bookId)
+                        .header(HttpHeaders.IF_MATCH, "\"stale\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"publisher\":\"New Publisher\"}"))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(bookService, never()).save(any(Book.class));
+    }
+
+    @Test
+    void testUpdateBookById_IfMatchSucceeds() throws Exception {
+        UUID bookId = UUID.randomUUID();
+        Book book = Book.builder().id(bookId).version(2).build();
+
+        when(bookService.findLatestById(bookId)).thenReturn(Optional.of(book));
+
+        mockMvc.perform(patch("/book/" + bookId)
+                        .header(HttpHeaders.IF_MATCH, BookETags.of(book))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"publisher\":\"New Publisher\"}"))
+                .andExpect(status().isOk());
+
+        verify(bookService, times(1)).save(book);
+    }
 }
@@ -0,0 +1,56 @@
+package com.adproc8.booku.booklist.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Date;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+class BookCursorCodecTest {
+
+    @Test
+    void testRoundTrip() {
+        Sort sort = Sort.by(Sort.Direction.DESC, "publishDate");
+        Map<String, Object> keys = Map.of(
+                "publishDate", Date.valueOf("2022-01-01"),
+                "id", UUID.randomUUID());
+
+        String cursor = BookCursorCodec.encode(ScrollPosition.forward(keys), sort);
+        KeysetScrollPosition position = BookCursorCodec.decode(cursor, sort);
+
+        assertEquals(keys, position.getKeys());
+    }
+
+    @Test
+    void testRoundTrip_NumericKeys() {
+        Sort sort = Sort.by(Sort.Direction.ASC, "rating");
+        Map<String, Object> keys = Map.of(
+                "rating", 4.5f,
+                "id", UUID.randomUUID());
+
+        String cursor = BookCursorCodec.encode(ScrollPosition.forward(keys), sort);
+
+        assertEquals(keys, BookCursorCodec.decode(cursor, sort).getKeys());
+    }
+
+    @Test
+    void testDecode_DifferentSort() {
+        Sort sort = Sort.by(Sort.Direction.ASC, "title");
+        String cursor = BookCursorCodec.encode(
+                ScrollPosition.forward(Map.of("title", "Title", "id", UUID.randomUUID())), sort);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> BookCursorCodec.decode(cursor, Sort.by(Sort.Direction.DESC, "title")));
+    }
+
+    @Test
+    void testDecode_Garbage() {
+        assertThrows(IllegalArgumentException.class,
+                () -> BookCursorCodec.decode("not-a-cursor", Sort.unsorted()));
+    }
+}
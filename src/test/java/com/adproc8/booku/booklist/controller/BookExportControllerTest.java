@@ -0,0 +1,114 @@
+package com.adproc8.booku.booklist.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.adproc8.booku.booklist.model.Book;
+import com.adproc8.booku.booklist.service.BookService;
+
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+class BookExportControllerTest {
+
+    @MockBean
+    private BookService bookService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        doAnswer(invocation -> {
+            Consumer<Book> action = invocation.getArgument(1);
+            action.accept(Book.builder().title("Title 1").author("Author 1").build());
+            action.accept(Book.builder().title("Title 2").author("Author 2").build());
+            return null;
+        }).when(bookService).forEach(any(), any(Consumer.class));
+    }
+
+    @Test
+    void testExportBooks() throws Exception {
+        MvcResult result = mockMvc.perform(get("/book/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"title\":\"Title 1\""));
+        assertTrue(lines[1].contains("\"title\":\"Title 2\""));
+    }
+
+    @Test
+    void testExportBooks_Gzip() throws Exception {
+        MvcResult result = mockMvc.perform(get("/book/export")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            String text = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+            assertEquals(2, text.split("\n").length);
+        }
+    }
+
+    @Test
+    void testExportBooks_GzipRefused() throws Exception {
+        MvcResult result = mockMvc.perform(get("/book/export")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void testAcceptsGzip() {
+        assertTrue(BookExportController.acceptsGzip("gzip, deflate, br"));
+        assertTrue(BookExportController.acceptsGzip("br;q=1.0, GZIP; q=0.5"));
+        assertTrue(BookExportController.acceptsGzip("*"));
+        assertFalse(BookExportController.acceptsGzip(""));
+        assertFalse(BookExportController.acceptsGzip("gzip;q=0"));
+        assertFalse(BookExportController.acceptsGzip("gzip;q=0.000, *;q=1"));
+        assertFalse(BookExportController.acceptsGzip("*;q=0"));
+        assertFalse(BookExportController.acceptsGzip("deflate"));
+    }
+
+    @Test
+    void testExportBooks_InvalidFilter() throws Exception {
+        mockMvc.perform(get("/book/export").param("filter", "colour = red"))
+                .andExpect(status().isBadRequest());
+
+        verify(bookService, never()).forEach(any(), any());
+    }
+}
@@ -0,0 +1,74 @@
+package com.adproc8.booku.booklist.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.sql.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.adproc8.booku.booklist.model.Book;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+
+class BookFilterParserTest {
+
+    @SuppressWarnings("unchecked")
+    private final Root<Book> root = mock(Root.class);
+    private final CriteriaQuery<?> query = mock(CriteriaQuery.class);
+    private final CriteriaBuilder builder = mock(CriteriaBuilder.class, RETURNS_MOCKS);
+    private final Path<Object> path = mock(Path.class, RETURNS_MOCKS);
+
+    private void toPredicate(Specification<Book> spec) {
+        when(root.get(any(String.class))).thenReturn(path);
+        spec.toPredicate(root, query, builder);
+    }
+
+    @Test
+    void testParse_RangesAndInList() {
+        toPredicate(BookFilterParser.parse(
+                "price >= 50000 and publishDate < 2000-01-01 and category in (fiction, 'science fiction')"));
+
+        verify(builder).greaterThanOrEqualTo(any(Path.class), eq(50000));
+        verify(builder).lessThan(any(Path.class), eq(Date.valueOf("2000-01-01")));
+        verify(path).in(List.of("fiction", "science fiction"));
+    }
+
+    @Test
+    void testParse_BooleanLogic() {
+        toPredicate(BookFilterParser.parse("not (rating < 3 OR author = 'O''Brien')"));
+
+        verify(builder).lessThan(any(Path.class), eq(3.0f));
+        verify(builder).equal(path, "O'Brien");
+        verify(builder).not(any());
+    }
+
+    @Test
+    void testParse_RejectsUnknownField() {
+        assertThrows(IllegalArgumentException.class, () -> BookFilterParser.parse("secret = 1"));
+    }
+
+    @Test
+    void testParse_RejectsInvalidValue() {
+        assertThrows(IllegalArgumentException.class, () -> BookFilterParser.parse("pageCount > many"));
+        assertThrows(IllegalArgumentException.class, () -> BookFilterParser.parse("publishDate = yesterday"));
+    }
+
+    @Test
+    void testParse_RejectsRangeOnText() {
+        assertThrows(IllegalArgumentException.class, () -> BookFilterParser.parse("title > 'A'"));
+    }
+
+    @Test
+    void testParse_RejectsMalformedExpression() {
+        assertThrows(IllegalArgumentException.class, () -> BookFilterParser.parse("(price > 1"));
+        assertThrows(IllegalArgumentException.class, () -> BookFilterParser.parse("price > 1 price < 2"));
+        assertThrows(IllegalArgumentException.class, () -> BookFilterParser.parse("title = 'unterminated"));
+    }
+}
@@ -0,0 +1,135 @@
+package com.adproc8.booku.booklist.controller;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.adproc8.booku.booklist.service.BookService;
+
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+class BookImportControllerTest {
+
+    private static final String BOOK_JSON = """
+            {"title":"%s","author":"Author","publisher":"Publisher","price":100,\
+            "publishDate":"2022-01-01","isbn":"1234567890","pageCount":200,\
+            "photoUrl":"http://example.com/photo.jpg","category":"Category"}""";
+
+    @MockBean
+    private BookService bookService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testImportBooksFromNdjson() throws Exception {
+        when(bookService.insertAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        String body = String.join("\n",
+                BOOK_JSON.formatted("Title 1"),
+                BOOK_JSON.formatted("Title 2"),
+                "{not json",
+                BOOK_JSON.formatted(""),
+                BOOK_JSON.formatted("Title 1"));
+
+        mockMvc.perform(post("/book/import")
+                        .contentType(BookImportReader.NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.duplicates").value(1))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.errors[0].line").value(3))
+                .andExpect(jsonPath("$.errors[1].line").value(4))
+                .andExpect(jsonPath("$.errors[1].message").value("title is required"))
+                .andExpect(jsonPath("$.errors[2].line").value(5));
+
+        verify(bookService, times(1)).insertAll(anyList());
+    }
+
+    @Test
+    void testImportBooksFromCsv_ReportsExistingBooks() throws Exception {
+        when(bookService.insertAll(anyList())).thenReturn(List.of());
+
+        String body = """
+                title,author,publisher,price,publishDate,isbn,pageCount,photoUrl,category
+                "Title, with comma",Author,Publisher,100,2022-01-01,1234567890,200,http://example.com/photo.jpg,Category
+                """;
+
+        mockMvc.perform(post("/book/import")
+                        .contentType(BookImportReader.CSV)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(0))
+                .andExpect(jsonPath("$.duplicates").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(2))
+                .andExpect(jsonPath("$.errors[0].message").value("A book with this title and author already exists"));
+    }
+
+    @Test
+    void testImportBooksFromCsv_UnknownColumn() throws Exception {
+        mockMvc.perform(post("/book/import")
+                        .contentType(BookImportReader.CSV)
+                        .content("title,colour\nTitle,Red\n"))
+                .andExpect(status().isBadRequest());
+
+        verify(bookService, never()).insertAll(anyList());
+    }
+
+    @Test
+    void testImportBooks_RejectsMissingNumbers() throws Exception {
+        String body = String.join("\n",
+                BOOK_JSON.formatted("Title 1").replace("\"price\":100,", ""),
+                BOOK_JSON.formatted("Title 2").replace("\"pageCount\":200,", "\"pageCount\":null,"));
+
+        mockMvc.perform(post("/book/import")
+                        .contentType(BookImportReader.NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.errors[0].message").value("price is required"))
+                .andExpect(jsonPath("$.errors[1].message").value("pageCount is required"));
+
+        String csv = """
+                title,author,publisher,price,publishDate,isbn,pageCount,photoUrl,category
+                Title,Author,Publisher,,2022-01-01,1234567890,200,http://example.com/photo.jpg,Category
+                """;
+
+        mockMvc.perform(post("/book/import")
+                        .contentType(BookImportReader.CSV)
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.errors[0].message").value("price is required"));
+
+        verify(bookService, never()).insertAll(anyList());
+    }
+
+    @Test
+    void testImportBooksFromNdjson_SkipsOverlongRecord() throws Exception {
+        when(bookService.insertAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        String body = String.join("\r\n",
+                "x".repeat(200_000),
+                BOOK_JSON.formatted("Title 1"));
+
+        mockMvc.perform(post("/book/import")
+                        .contentType(BookImportReader.NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(1))
+                .andExpect(jsonPath("$.errors[0].message").value("Record is longer than 65536 characters"));
+    }
+}
@@ -0,0 +1,67 @@
+package com.adproc8.booku.booklist.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+@ExtendWith(MockitoExtension.class)
+class BookIndexCheckTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private void givenIndexes(List<List<String>> indexes) {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class))).thenReturn(indexes);
+    }
+
+    @Test
+    void testMissingIndexes_MatchesLeadingColumns() {
+        List<List<String>> indexes = new ArrayList<>(BookIndexCheck.REQUIRED_INDEXES);
+        indexes.remove(List.of("category", "rating"));
+        indexes.add(List.of("category", "rating", "id"));
+        indexes.remove(List.of("price"));
+        givenIndexes(indexes);
+
+        BookIndexCheck check = new BookIndexCheck(jdbcTemplate, BookIndexCheck.Mode.FAIL);
+
+        assertEquals(List.of(List.of("price")), check.missingIndexes());
+    }
+
+    @Test
+    void testCheck_FailsWhenIndexMissing() {
+        givenIndexes(List.of(List.of("id")));
+
+        BookIndexCheck check = new BookIndexCheck(jdbcTemplate, BookIndexCheck.Mode.FAIL);
+
+        assertThrows(IllegalStateException.class, check::check);
+    }
+
+    @Test
+    void testCheck_WarnsWhenIndexMissing() {
+        givenIndexes(List.of(List.of("id")));
+
+        BookIndexCheck check = new BookIndexCheck(jdbcTemplate, BookIndexCheck.Mode.WARN);
+
+        assertDoesNotThrow(check::check);
+    }
+
+    @Test
+    void testCheck_Off() {
+        BookIndexCheck check = new BookIndexCheck(jdbcTemplate, BookIndexCheck.Mode.OFF);
+
+        check.check();
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
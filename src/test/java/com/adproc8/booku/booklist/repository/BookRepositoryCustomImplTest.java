@@ -0,0 +1,96 @@
+package com.adproc8.booku.booklist.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import com.adproc8.booku.booklist.model.Book;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+
+@ExtendWith(MockitoExtension.class)
+class BookRepositoryCustomImplTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private BookRepositoryCustomImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new BookRepositoryCustomImpl(jdbcTemplate, entityManager, new SimpleMeterRegistry(), 100);
+    }
+
+    /**
+     * Makes the upsert report the given books as written with the given
+     * versions, and every other book as left alone.
+     */
+    private void givenWrittenVersions(Map<UUID, Long> versions) {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Map.Entry<UUID, Long> written : versions.entrySet()) {
+                ResultSet resultSet = mock(ResultSet.class);
+                when(resultSet.getObject(1, UUID.class)).thenReturn(written.getKey());
+                when(resultSet.getLong(2)).thenReturn(written.getValue());
+                handler.processRow(resultSet);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    void testSaveAllInBatch_SetsNewVersions() {
+        Book existing = Book.builder().id(UUID.randomUUID()).version(3).build();
+        Book created = Book.builder().version(0).build();
+
+        // The new book's ID is only known once it is assigned.
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Book book : List.of(existing, created)) {
+                ResultSet resultSet = mock(ResultSet.class);
+                when(resultSet.getObject(1, UUID.class)).thenReturn(book.getId());
+                when(resultSet.getLong(2)).thenReturn(book == existing ? 4L : 0L);
+                handler.processRow(resultSet);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        List<Book> saved = repository.saveAllInBatch(List.of(existing, created));
+
+        assertEquals(4, saved.get(0).getVersion());
+        assertEquals(0, saved.get(1).getVersion());
+        assertNotNull(saved.get(1).getId());
+    }
+
+    @Test
+    void testSaveAllInBatch_RejectsStaleVersions() {
+        Book current = Book.builder().id(UUID.randomUUID()).version(2).build();
+        Book stale = Book.builder().id(UUID.randomUUID()).version(1).build();
+        givenWrittenVersions(Map.of(current.getId(), 3L));
+
+        OptimisticLockingFailureException ex = assertThrows(OptimisticLockingFailureException.class,
+                () -> repository.saveAllInBatch(List.of(current, stale)));
+
+        assertTrue(ex.getMessage().contains(stale.getId().toString()));
+        assertFalse(ex.getMessage().contains(current.getId().toString()));
+    }
+}
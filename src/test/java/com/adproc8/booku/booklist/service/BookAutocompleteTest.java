@@ -0,0 +1,176 @@
+package com.adproc8.booku.booklist.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.adproc8.booku.booklist.dto.BookSuggestionDto;
+import com.adproc8.booku.booklist.model.Book;
+import com.adproc8.booku.booklist.repository.BookRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class BookAutocompleteTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final Book philosopherStone = book("Harry Potter and the Philosopher's Stone", "J.K. Rowling", 900);
+    private final Book chamberOfSecrets = book("Harry Potter and the Chamber of Secrets", "J.K. Rowling", 500);
+    private final Book blindness = book("Ensaio sobre a Cegueira", "José Saramago", 300);
+
+    private BookAutocomplete bookAutocomplete;
+
+    @BeforeEach
+    void setUp() {
+        bookAutocomplete = new BookAutocomplete(bookRepository, new InMemoryBookChangeBus(),
+                meterRegistry, 100, 20, 3);
+
+        when(bookRepository.findBy(any(Specification.class), any()))
+                .thenReturn(Window.from(List.of(philosopherStone, chamberOfSecrets, blindness),
+                        ScrollPosition::offset, false));
+
+        bookAutocomplete.build();
+    }
+
+    private static Book book(String title, String author, int downloadCount) {
+        return Book.builder()
+            .id(UUID.randomUUID())
+            .title(title)
+            .author(author)
+            .downloadCount(downloadCount)
+            .build();
+    }
+
+    private List<String> suggest(String prefix, int limit) {
+        return bookAutocomplete.suggest(prefix, limit).stream()
+                .map(BookSuggestionDto::getText)
+                .toList();
+    }
+
+    @Test
+    void testSuggest_MatchesAnyWordByDownloads() {
+        assertEquals(List.of(philosopherStone.getTitle(), chamberOfSecrets.getTitle()), suggest("pot", 10));
+        assertEquals(List.of(chamberOfSecrets.getTitle()), suggest("chamber of s", 10));
+        assertEquals(List.of(philosopherStone.getTitle()), suggest("harry", 1));
+    }
+
+    @Test
+    void testSuggest_IgnoresCaseAndAccents() {
+        List<BookSuggestionDto> suggestions = bookAutocomplete.suggest("JOSE", 10);
+
+        assertEquals(1, suggestions.size());
+        assertEquals("José Saramago", suggestions.get(0).getText());
+        assertEquals("author", suggestions.get(0).getType());
+        assertNull(suggestions.get(0).getBookId());
+    }
+
+    @Test
+    void testSuggest_ListsEachAuthorOnce() {
+        assertEquals(List.of("J.K. Rowling"), suggest("rowl", 10));
+    }
+
+    @Test
+    void testBooksChanged_ReindexesAndRemoves() {
+        Book renamed = book("Harry Potter and the Goblet of Fire", "J.K. Rowling", 900);
+        renamed.setId(philosopherStone.getId());
+
+        when(bookRepository.findAllById(Set.of(philosopherStone.getId(), blindness.getId())))
+                .thenReturn(List.of(renamed));
+
+        bookAutocomplete.booksChanged(List.of(philosopherStone.getId(), blindness.getId()));
+
+        verify(bookRepository, never()).findAllById(any());
+        assertEquals(List.of(philosopherStone.getTitle()), suggest("philosopher", 10));
+
+        bookAutocomplete.applyChanges();
+
+        assertEquals(List.of(renamed.getTitle()), suggest("goblet", 10));
+        assertEquals(List.of(), suggest("philosopher", 10));
+        assertEquals(List.of(), suggest("saramago", 10));
+    }
+
+    @Test
+    void testBooksChanged_ReadsEachBookOnce() {
+        when(bookRepository.findAllById(Set.of(blindness.getId()))).thenReturn(List.of(blindness));
+
+        bookAutocomplete.booksChanged(List.of(blindness.getId()));
+        bookAutocomplete.booksChanged(List.of(blindness.getId()));
+        bookAutocomplete.applyChanges();
+        bookAutocomplete.applyChanges();
+
+        verify(bookRepository, times(1)).findAllById(any());
+        assertEquals(List.of(blindness.getAuthor()), suggest("saramago", 10));
+    }
+
+    @Test
+    void testSuggest_RanksAllKeysByDownloads() {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            books.add(book("Harry Hole " + i, "Jo Nesbø", i));
+        }
+        books.add(book("Harry Potter and the Prisoner of Azkaban", "J.K. Rowling", 1000));
+        Collections.shuffle(books);
+
+        when(bookRepository.findBy(any(Specification.class), any()))
+                .thenReturn(Window.from(books, ScrollPosition::offset, false));
+        bookAutocomplete = new BookAutocomplete(bookRepository, new InMemoryBookChangeBus(),
+                new SimpleMeterRegistry(), 100, 1, 3);
+        bookAutocomplete.build();
+
+        assertEquals(List.of("Harry Potter and the Prisoner of Azkaban", "Harry Hole 49"), suggest("harry", 2));
+        assertEquals(List.of("Jo Nesbø"), suggest("nesb", 10));
+    }
+
+    @Test
+    void testSuggest_ShortPrefixFallsBackToNextBestOnceRemoved() {
+        Book prisonerOfAzkaban = book("Harry Potter and the Prisoner of Azkaban", "J.K. Rowling", 1000);
+        List<Book> books = new ArrayList<>(List.of(prisonerOfAzkaban));
+        for (int i = 0; i < 50; i++) {
+            books.add(book("Harry Hole " + i, "Jo Nesbø", i));
+        }
+
+        when(bookRepository.findBy(any(Specification.class), any()))
+                .thenReturn(Window.from(books, ScrollPosition::offset, false));
+        bookAutocomplete = new BookAutocomplete(bookRepository, new InMemoryBookChangeBus(),
+                new SimpleMeterRegistry(), 100, 1, 3);
+        bookAutocomplete.build();
+
+        assertEquals(List.of(prisonerOfAzkaban.getTitle()), suggest("ha", 10));
+
+        when(bookRepository.findAllById(Set.of(prisonerOfAzkaban.getId()))).thenReturn(List.of());
+        bookAutocomplete.booksChanged(List.of(prisonerOfAzkaban.getId()));
+        bookAutocomplete.applyChanges();
+
+        assertEquals(List.of("Harry Hole 49"), suggest("ha", 10));
+        assertEquals(List.of("Jo Nesbø"), suggest("j", 10));
+    }
+
+    @Test
+    void testMemoryGauges() {
+        double memory = meterRegistry.get("book.autocomplete.memory").gauge().value();
+
+        assertTrue(memory > 0);
+        assertEquals(memory / 3, meterRegistry.get("book.autocomplete.memory.per-book").gauge().value(), 0.001);
+        assertEquals(3, meterRegistry.get("book.autocomplete.books").gauge().value());
+    }
+}
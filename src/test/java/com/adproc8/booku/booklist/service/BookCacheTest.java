@@ -0,0 +1,104 @@
+package com.adproc8.booku.booklist.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.adproc8.booku.booklist.model.Book;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class BookCacheTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Book book = Book.builder().id(UUID.randomUUID()).title("Test Title").build();
+
+    private final BookChangeBus bookChangeBus = new InMemoryBookChangeBus();
+
+    private BookCache bookCache;
+
+    @BeforeEach
+    void setUp() {
+        bookCache = new BookCache(bookChangeBus, meterRegistry, 100, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void testGet_HandsOutCopies() {
+        bookCache.get(book.getId(), id -> Optional.of(book));
+        book.setTitle("Changed Title");
+
+        Book cached = bookCache.get(book.getId(), id -> fail("should be cached")).get();
+        cached.setTitle("Changed Again");
+
+        assertEquals("Test Title", bookCache.get(book.getId(), id -> fail("should be cached")).get().getTitle());
+        assertEquals(2, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void testGet_DoesNotCacheMissingBooks() {
+        List<UUID> loads = new ArrayList<>();
+
+        bookCache.get(book.getId(), id -> { loads.add(id); return Optional.empty(); });
+        bookCache.get(book.getId(), id -> { loads.add(id); return Optional.empty(); });
+
+        assertEquals(2, loads.size());
+    }
+
+    @Test
+    void testGetAll_LoadsOnlyMissingBooks() {
+        Book other = Book.builder().id(UUID.randomUUID()).title("Other Title").build();
+        bookCache.get(book.getId(), id -> Optional.of(book));
+
+        List<List<UUID>> loads = new ArrayList<>();
+        List<Book> books = bookCache.getAll(List.of(book.getId(), other.getId()), ids -> {
+            loads.add(ids);
+            return List.of(other);
+        });
+
+        assertEquals(List.of(List.of(other.getId())), loads);
+        assertEquals(List.of("Test Title", "Other Title"), books.stream().map(Book::getTitle).toList());
+    }
+
+    @Test
+    void testBooksChanged_EvictsPublishedBooks() {
+        bookCache.get(book.getId(), id -> Optional.of(book));
+        bookChangeBus.publish(List.of(book.getId()));
+
+        List<UUID> loads = new ArrayList<>();
+        bookCache.get(book.getId(), id -> { loads.add(id); return Optional.of(book); });
+
+        assertEquals(List.of(book.getId()), loads);
+    }
+
+    @Test
+    void testChangesMissed_EvictsEverything() {
+        bookCache.get(book.getId(), id -> Optional.of(book));
+        bookCache.changesMissed();
+
+        List<UUID> loads = new ArrayList<>();
+        bookCache.get(book.getId(), id -> { loads.add(id); return Optional.of(book); });
+
+        assertEquals(List.of(book.getId()), loads);
+    }
+
+    @Test
+    void testGet_SkipsLoadOverlappingInvalidation() {
+        bookCache.get(book.getId(), id -> {
+            bookCache.booksChanged(List.of(id));
+            return Optional.of(book);
+        });
+
+        List<UUID> loads = new ArrayList<>();
+        bookCache.get(book.getId(), id -> { loads.add(id); return Optional.of(book); });
+
+        assertEquals(List.of(book.getId()), loads);
+    }
+}
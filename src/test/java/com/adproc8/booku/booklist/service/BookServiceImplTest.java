@@ -1,28 +1,45 @@
 package com.adproc8.booku.booklist.service;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import com.adproc8.booku.booklist.config.ReadYourWrites;
+import com.adproc8.booku.booklist.dto.BookViewDto;
+import com.adproc8.booku.booklist.dto.RatingByBookIdDto;
 import com.adproc8.booku.booklist.model.Book;
 import com.adproc8.booku.booklist.repository.BookRepository;
+import com.adproc8.booku.booklist.repository.BookRepositoryCustom;
 
+import jakarta.persistence.Tuple;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,9 +48,36 @@ class BookServiceImplTest {
     @Mock
     private BookRepository bookRepository;
 
-    @InjectMocks
+    @Mock
+    private RatingCache ratingCache;
+
+    @Mock
+    private RatingLookup ratingLookup;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private BookAutocomplete bookAutocomplete;
+
+    private BookChangeBus bookChangeBus;
+
     private BookServiceImpl bookService;
 
+    @BeforeEach
+    void setUp() {
+        RatingEnricher ratingEnricher = new RatingEnricher(ratingCache, ratingLookup,
+                Runnable::run, transactionManager, new SimpleMeterRegistry(),
+                Duration.ofSeconds(1));
+        lenient().when(ratingCache.get()).thenReturn(RatingTable.EMPTY);
+        lenient().when(ratingCache.current()).thenReturn(RatingTable.EMPTY);
+        lenient().when(ratingLookup.lookup(anyCollection())).thenReturn(RatingTable.EMPTY);
+        bookChangeBus = new InMemoryBookChangeBus();
+        BookCache bookCache = new BookCache(bookChangeBus, new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+        bookService = new BookServiceImpl(bookRepository, bookCache, bookChangeBus,
+                bookAutocomplete, ratingEnricher, 1000, 2);
+    }
+
     @Test
     void testSave() {
         Book bookToSave = Book.builder()
@@ -73,12 +117,12 @@ class BookServiceImplTest {
             .build();
 
         List<Book> booksToSave = Arrays.asList(book1, book2);
-        when(bookRepository.saveAll(anyList())).thenReturn(booksToSave);
+        when(bookRepository.saveAllInBatch(anyList())).thenReturn(booksToSave);
 
         List<Book> savedBooks = bookService.saveAll(booksToSave);
 
         assertEquals(booksToSave, savedBooks);
-        verify(bookRepository, times(1)).saveAll(booksToSave);
+        verify(bookRepository, times(1)).saveAllInBatch(booksToSave);
     }
 
     @Test
@@ -92,10 +136,24 @@ class BookServiceImplTest {
         List<Book> booksToSave = new ArrayList<>();
         booksToSave.add(book);
         booksToSave.add(null);
-        doThrow(IllegalArgumentException.class).when(bookRepository).saveAll(anyList());
+        doThrow(IllegalArgumentException.class).when(bookRepository).saveAllInBatch(anyList());
 
         assertThrows(IllegalArgumentException.class, () -> bookService.saveAll(booksToSave));
-        verify(bookRepository, times(1)).saveAll(booksToSave);
+        verify(bookRepository, times(1)).saveAllInBatch(booksToSave);
+    }
+
+    @Test
+    void testInsertAll_ReturnsInsertedBooks() {
+        Book book1 = Book.builder().title("Test Title 1").author("Test Author 1").build();
+        Book book2 = Book.builder().title("Test Title 2").author("Test Author 2").build();
+
+        List<Book> booksToInsert = Arrays.asList(book1, book2);
+        when(bookRepository.insertAllInBatch(booksToInsert)).thenReturn(List.of(book1));
+
+        List<Book> insertedBooks = bookService.insertAll(booksToInsert);
+
+        assertEquals(List.of(book1), insertedBooks);
+        verify(bookRepository, times(1)).insertAllInBatch(booksToInsert);
     }
 
     @Test
@@ -116,6 +174,62 @@ class BookServiceImplTest {
         verify(bookRepository, times(1)).findById(bookId);
     }
 
+    @Test
+    void testFindById_ServedFromCacheUntilSaved() {
+        UUID bookId = UUID.randomUUID();
+        Book book = Book.builder()
+            .id(bookId)
+            .title("Test Title")
+            .author("Test Author")
+            .build();
+
+        when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
+        when(bookRepository.save(book)).thenReturn(book);
+
+        bookService.findById(bookId);
+        Optional<Book> cachedBook = bookService.findById(bookId);
+
+        assertEquals("Test Title", cachedBook.get().getTitle());
+        assertNotSame(book, cachedBook.get());
+        verify(bookRepository, times(1)).findById(bookId);
+
+        bookService.save(book);
+        bookService.findById(bookId);
+
+        verify(bookRepository, times(2)).findById(bookId);
+    }
+
+    @Test
+    void testFindById_LoadsFromPrimary() {
+        UUID bookId = UUID.randomUUID();
+
+        when(bookRepository.findById(bookId)).thenAnswer(invocation -> {
+            assertTrue(ReadYourWrites.isPrimaryRequired());
+            return Optional.empty();
+        });
+
+        bookService.findById(bookId);
+
+        assertFalse(ReadYourWrites.isPrimaryRequired());
+    }
+
+    @Test
+    void testFindAllById_LoadsMissesFromPrimaryInOneTransaction() {
+        UUID bookId = UUID.randomUUID();
+        Book book = Book.builder().id(bookId).build();
+
+        when(ratingLookup.lookup(anyList())).thenReturn(RatingTable.EMPTY);
+        when(bookRepository.findAllById(List.of(bookId))).thenAnswer(invocation -> {
+            assertTrue(ReadYourWrites.isPrimaryRequired());
+            return List.of(book);
+        });
+
+        bookService.findAllById(List.of(bookId));
+
+        verify(transactionManager, times(1)).getTransaction(any());
+        assertFalse(ReadYourWrites.isPrimaryRequired());
+    }
+
     @Test
     void testFindById_NotExists() {
         UUID bookId = UUID.randomUUID();
@@ -221,6 +335,80 @@ class BookServiceImplTest {
         verify(bookRepository, times(1)).findAll(spec, sort);
     }
 
+    @Test
+    void testFindAllWithSpecAndPageable() {
+        List<Book> books = Arrays.asList(new Book(), new Book());
+        Specification<Book> spec = (root, query, cb) -> cb.equal(root.get("title"), "Test Title");
+        Pageable pageable = PageRequest.of(0, 2, Sort.by(Sort.Direction.ASC, "title"));
+
+        doReturn(new SliceImpl<>(books)).when(bookRepository).findSlice(eq(spec), any(Pageable.class));
+
+        Slice<Book> returnedBooks = bookService.findAll(spec, pageable);
+
+        assertEquals(books, returnedBooks.getContent());
+        verify(bookRepository, never()).count(any(Specification.class));
+        verify(bookRepository, times(1)).findSlice(spec,
+                PageRequest.of(0, 2, Sort.by(Sort.Direction.ASC, "title").and(Sort.by("id"))));
+    }
+
+    @Test
+    void testFindAllWithFields() {
+        UUID bookId = UUID.randomUUID();
+        Specification<Book> spec = Specification.where(null);
+        Set<String> fields = Set.of("title");
+
+        Tuple tuple = mock(Tuple.class);
+        when(tuple.get("id")).thenReturn(bookId);
+        when(tuple.get("title")).thenReturn("Test Title");
+        when(bookRepository.findAllFields(spec, Sort.unsorted(), Set.of("id", "title")))
+                .thenReturn(List.of(tuple));
+
+        List<BookViewDto> views = bookService.findAll(spec, Sort.unsorted(), fields);
+
+        assertEquals(1, views.size());
+        assertEquals(bookId, views.get(0).getId());
+        assertEquals("Test Title", views.get(0).getTitle());
+        assertNull(views.get(0).getAuthor());
+        assertNull(views.get(0).getRating());
+        verifyNoInteractions(ratingCache);
+    }
+
+    @Test
+    void testFindAllWithFields_OverlaysRatings() {
+        UUID bookId = UUID.randomUUID();
+        Specification<Book> spec = Specification.where(null);
+        Pageable pageable = PageRequest.of(0, 10);
+
+        Tuple tuple = mock(Tuple.class);
+        when(tuple.get("id")).thenReturn(bookId);
+        when(tuple.get("rating")).thenReturn(1.0f);
+        when(bookRepository.findAllFields(spec, PageRequest.of(0, 10, Sort.by("id")), Set.of("id", "rating")))
+                .thenReturn(new SliceImpl<>(List.of(tuple)));
+        when(ratingCache.get()).thenReturn(RatingTable.of(List.of(new RatingByBookIdDto(bookId, 4.5f))));
+
+        Slice<BookViewDto> views = bookService.findAll(spec, pageable, Set.of("rating"));
+
+        assertEquals(4.5f, views.getContent().get(0).getRating());
+    }
+
+    @Test
+    void testSearch() {
+        Pageable pageable = PageRequest.of(0, 20);
+        List<Book> books = List.of(Book.builder().id(UUID.randomUUID()).title("Harry Potter").build());
+
+        when(bookRepository.search("harry:* & pot:*", "harry pot", pageable))
+                .thenReturn(new SliceImpl<>(books, pageable, false));
+
+        assertEquals(books, bookService.search("  Harry, POT!", pageable).getContent());
+    }
+
+    @Test
+    void testSearch_NoWords() {
+        assertThrows(IllegalArgumentException.class,
+                () -> bookService.search(" -- ", PageRequest.of(0, 20)));
+        verifyNoInteractions(bookRepository);
+    }
+
     @Test
     void testFindAllById() {
         UUID bookId1 = UUID.randomUUID();
@@ -405,4 +593,89 @@ class BookServiceImplTest {
         assertThrows(IllegalArgumentException.class, () -> bookService.deleteAll(null));
         verify(bookRepository, times(1)).deleteAllInBatch(null);
     }
+
+    @Test
+    void testDeleteAllById_DeletesInChunks() {
+        List<UUID> bookIds = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        when(bookRepository.deleteAllByIds(anyList())).thenReturn(2, 1);
+
+        long deleted = bookService.deleteAllById(bookIds, false);
+
+        assertEquals(3, deleted);
+        verify(bookRepository).deleteAllByIds(bookIds.subList(0, 2));
+        verify(bookRepository).deleteAllByIds(bookIds.subList(2, 3));
+    }
+
+    @Test
+    void testDeleteAllById_DryRunOnlyCounts() {
+        List<UUID> bookIds = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        when(bookRepository.count(any(Specification.class))).thenReturn(2L, 1L);
+
+        long count = bookService.deleteAllById(bookIds, true);
+
+        assertEquals(3, count);
+        verify(bookRepository, never()).deleteAllByIds(anyList());
+    }
+
+    @Test
+    void testDeleteAll_WalksIdsInChunks() {
+        Specification<Book> spec = Specification.where(null);
+        UUID id1 = UUID.randomUUID();
+        UUID id2 = UUID.randomUUID();
+        UUID id3 = UUID.randomUUID();
+
+        when(bookRepository.findIds(spec, null, 2)).thenReturn(List.of(id1, id2));
+        when(bookRepository.findIds(spec, id2, 2)).thenReturn(List.of(id3));
+        when(bookRepository.deleteAllByIds(anyList())).thenReturn(2, 1);
+
+        long deleted = bookService.deleteAll(spec, false);
+
+        assertEquals(3, deleted);
+        verify(bookRepository).deleteAllByIds(List.of(id1, id2));
+        verify(bookRepository).deleteAllByIds(List.of(id3));
+    }
+
+    @Test
+    void testUpdateAll_InvalidatesUpdatedBooks() {
+        UUID updatedId = UUID.randomUUID();
+        UUID missingId = UUID.randomUUID();
+        Book book = Book.builder().id(updatedId).publisher("Old Publisher").build();
+
+        when(bookRepository.findById(updatedId)).thenReturn(Optional.of(book));
+        bookService.findById(updatedId);
+
+        Map<UUID, Map<String, Object>> changes = Map.of(
+                updatedId, Map.of("publisher", "New Publisher"),
+                missingId, Map.of("publisher", "New Publisher"));
+        when(bookRepository.updateFields(changes)).thenReturn(Map.of(
+                updatedId, BookRepositoryCustom.UpdateResult.UPDATED,
+                missingId, BookRepositoryCustom.UpdateResult.NOT_FOUND));
+
+        bookService.updateAll(changes);
+        bookService.findById(updatedId);
+
+        verify(bookRepository, times(2)).findById(updatedId);
+    }
+
+    @Test
+    void testFindById_AfterRatingSync() {
+        UUID bookId = UUID.randomUUID();
+        Book book = Book.builder().id(bookId).rating(3.0f).version(1).build();
+        Book rated = book.toBuilder().rating(4.0f).build();
+
+        when(bookRepository.findById(bookId))
+                .thenReturn(Optional.of(book))
+                .thenReturn(Optional.of(rated));
+        when(bookRepository.updateRatings(Map.of(bookId, 4.0f))).thenReturn(List.of(bookId));
+        when(ratingCache.get()).thenReturn(RatingTable.of(List.of(new RatingByBookIdDto(bookId, 4.0f))));
+
+        bookService.findById(bookId);
+
+        new RatingSync(ratingCache, bookRepository, bookChangeBus, new SimpleMeterRegistry(), 10).sync();
+
+        Book current = bookService.findById(bookId).get();
+        assertEquals(4.0f, current.getRating());
+        assertEquals(1, current.getVersion());
+        verify(bookRepository, times(2)).findById(bookId);
+    }
 }
@@ -0,0 +1,81 @@
+package com.adproc8.booku.booklist.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.postgresql.PGNotification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class PostgresBookChangeBusTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    private final PostgresBookChangeBus bookChangeBus = new PostgresBookChangeBus(
+            jdbcTemplate, mock(DataSource.class), Duration.ofSeconds(1), Duration.ofSeconds(5));
+
+    private static PGNotification notification(String payload) {
+        PGNotification notification = mock(PGNotification.class);
+        when(notification.getParameter()).thenReturn(payload);
+        return notification;
+    }
+
+    @Test
+    void testEncode_SplitsIntoPayloadsUnderNotifyLimit() {
+        UUID sender = UUID.randomUUID();
+        List<UUID> bookIds = Stream.generate(UUID::randomUUID)
+                .limit(PostgresBookChangeBus.IDS_PER_NOTIFICATION + 1)
+                .toList();
+
+        List<String> payloads = PostgresBookChangeBus.encode(sender, bookIds);
+
+        assertEquals(2, payloads.size());
+        payloads.forEach(payload -> assertTrue(payload.length() < 8000));
+        payloads.forEach(payload -> assertEquals(sender, PostgresBookChangeBus.decode(payload).sender()));
+        assertEquals(bookIds, payloads.stream()
+                .flatMap(payload -> PostgresBookChangeBus.decode(payload).bookIds().stream())
+                .toList());
+    }
+
+    @Test
+    void testDecode_RejectsMalformedPayload() {
+        assertThrows(IllegalArgumentException.class, () -> PostgresBookChangeBus.decode("not-a-uuid"));
+        assertThrows(IllegalArgumentException.class, () -> PostgresBookChangeBus.decode(UUID.randomUUID().toString()));
+    }
+
+    @Test
+    void testDispatch_SkipsOwnNotifications() {
+        BookChangeBus.Listener listener = mock(BookChangeBus.Listener.class);
+        bookChangeBus.subscribe(listener);
+        List<UUID> bookIds = List.of(UUID.randomUUID());
+
+        bookChangeBus.publish(bookIds);
+
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).queryForRowSet(eq("SELECT pg_notify(?, ?)"), eq(PostgresBookChangeBus.CHANNEL), payload.capture());
+
+        bookChangeBus.dispatch(notification(payload.getValue()));
+
+        verify(listener, times(1)).booksChanged(bookIds);
+    }
+
+    @Test
+    void testDispatch_DeliversOtherInstancesNotifications() {
+        BookChangeBus.Listener listener = mock(BookChangeBus.Listener.class);
+        bookChangeBus.subscribe(listener);
+        List<UUID> bookIds = List.of(UUID.randomUUID());
+
+        bookChangeBus.dispatch(notification(PostgresBookChangeBus.encode(UUID.randomUUID(), bookIds).get(0)));
+
+        verify(listener, times(1)).booksChanged(bookIds);
+    }
+}
@@ -0,0 +1,150 @@
+package com.adproc8.booku.booklist.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.client.RestClientException;
+
+import com.adproc8.booku.booklist.dto.RatingByBookIdDto;
+import com.adproc8.booku.booklist.dto.RatingChangesDto;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class RatingCacheTest {
+
+    @Mock
+    private ReviewClient reviewClient;
+
+    private final AtomicLong now = new AtomicLong();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UUID bookId = UUID.randomUUID();
+
+    private RatingCache ratingCache;
+
+    @BeforeEach
+    void setUp() {
+        ratingCache = new RatingCache(reviewClient, Runnable::run, meterRegistry,
+                Duration.ofSeconds(30), Duration.ofSeconds(20), Duration.ofSeconds(60),
+                true, now::get);
+    }
+
+    private void advance(Duration duration) {
+        now.addAndGet(duration.toNanos());
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("rating.cache.requests").tag("result", result).counter().count();
+    }
+
+    @Test
+    void testGet_LoadsOnceThenHits() {
+        when(reviewClient.getRatings()).thenReturn(List.of(new RatingByBookIdDto(bookId, 4.0f)));
+
+        assertEquals(4.0f, ratingCache.get().get(bookId));
+        assertEquals(4.0f, ratingCache.get().get(bookId));
+
+        verify(reviewClient, times(1)).getRatings();
+        assertEquals(1, count("miss"));
+        assertEquals(1, count("hit"));
+    }
+
+    @Test
+    void testGet_RefreshesAheadOfExpiry() {
+        when(reviewClient.getRatings())
+                .thenReturn(List.of(new RatingByBookIdDto(bookId, 4.0f)))
+                .thenReturn(List.of(new RatingByBookIdDto(bookId, 5.0f)));
+
+        ratingCache.get();
+        advance(Duration.ofSeconds(25));
+
+        assertEquals(4.0f, ratingCache.get().get(bookId));
+        assertEquals(5.0f, ratingCache.get().get(bookId));
+        verify(reviewClient, times(2)).getRatings();
+    }
+
+    @Test
+    void testGet_ServesStaleWhenRefreshFails() {
+        when(reviewClient.getRatings())
+                .thenReturn(List.of(new RatingByBookIdDto(bookId, 4.0f)))
+                .thenThrow(new RestClientException("down"));
+
+        ratingCache.get();
+        advance(Duration.ofSeconds(45));
+
+        assertEquals(4.0f, ratingCache.get().get(bookId));
+        assertEquals(1, count("stale"));
+        assertEquals(1, meterRegistry.get("rating.cache.refresh.failures").counter().count());
+    }
+
+    @Test
+    void testGet_ReturnsEmptyWhenColdAndReviewServiceDown() {
+        when(reviewClient.getRatings()).thenThrow(new RestClientException("down"));
+
+        RatingTable ratings = assertDoesNotThrow(ratingCache::get);
+
+        assertEquals(0, ratings.size());
+        assertEquals(1, meterRegistry.get("rating.cache.refresh.failures").counter().count());
+    }
+
+    @Test
+    void testGet_ReloadsSynchronouslyPastStaleWindow() {
+        when(reviewClient.getRatings())
+                .thenReturn(List.of(new RatingByBookIdDto(bookId, 4.0f)))
+                .thenReturn(List.of());
+
+        ratingCache.get();
+        advance(Duration.ofSeconds(91));
+
+        assertTrue(Float.isNaN(ratingCache.get().get(bookId)));
+        assertEquals(2, count("miss"));
+    }
+
+    @Test
+    void testRefresh_MergesChangesSinceWatermark() {
+        UUID otherBookId = UUID.randomUUID();
+        Instant firstWatermark = Instant.parse("2024-01-01T00:00:00Z");
+        Instant secondWatermark = firstWatermark.plusSeconds(90);
+
+        when(reviewClient.getRatingChanges(null)).thenReturn(Optional.of(new RatingChangesDto(
+                List.of(new RatingByBookIdDto(bookId, 4.0f), new RatingByBookIdDto(otherBookId, 2.0f)),
+                firstWatermark)));
+        when(reviewClient.getRatingChanges(firstWatermark)).thenReturn(Optional.of(new RatingChangesDto(
+                List.of(new RatingByBookIdDto(bookId, 4.5f)),
+                secondWatermark)));
+
+        ratingCache.get();
+        advance(Duration.ofSeconds(91));
+        RatingTable ratings = ratingCache.get();
+
+        assertEquals(4.5f, ratings.get(bookId));
+        assertEquals(2.0f, ratings.get(otherBookId));
+        verify(reviewClient, never()).getRatings();
+    }
+
+    @Test
+    void testRefresh_FallsBackToFullWhenChangesUnsupported() {
+        when(reviewClient.getRatingChanges(null)).thenReturn(Optional.empty());
+        when(reviewClient.getRatings()).thenReturn(List.of(new RatingByBookIdDto(bookId, 4.0f)));
+
+        ratingCache.get();
+        advance(Duration.ofSeconds(91));
+        ratingCache.get();
+
+        verify(reviewClient, times(1)).getRatingChanges(null);
+        verify(reviewClient, times(2)).getRatings();
+    }
+}
@@ -0,0 +1,131 @@
+package com.adproc8.booku.booklist.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.web.client.RestClientException;
+
+import com.adproc8.booku.booklist.dto.RatingByBookIdDto;
+import com.adproc8.booku.booklist.model.Book;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class RatingEnricherTest {
+
+    @Mock
+    private RatingCache ratingCache;
+
+    @Mock
+    private RatingLookup ratingLookup;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private RatingEnricher ratingEnricher;
+
+    @BeforeEach
+    void setUp() {
+        ratingEnricher = new RatingEnricher(ratingCache, ratingLookup,
+                executor, transactionManager, meterRegistry, Duration.ofMillis(200));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testWithCachedRatings_RunsLegsConcurrently() {
+        List<Book> books = List.of(Book.builder().id(UUID.randomUUID()).build());
+        RatingTable ratings = RatingTable.of(List.of(new RatingByBookIdDto(books.get(0).getId(), 4.0f)));
+        CountDownLatch ratingsStarted = new CountDownLatch(1);
+
+        when(ratingCache.get()).thenAnswer(invocation -> {
+            ratingsStarted.countDown();
+            return ratings;
+        });
+
+        AtomicBoolean overlapped = new AtomicBoolean();
+
+        List<Book> result = ratingEnricher.withCachedRatings(() -> {
+            try {
+                overlapped.set(ratingsStarted.await(1, TimeUnit.SECONDS));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return books;
+        }, value -> value);
+
+        assertTrue(overlapped.get());
+        assertSame(books, result);
+        assertEquals(4.0f, books.get(0).getRating());
+        assertEquals(1, meterRegistry.get("book.fan-out.leg").tag("leg", "database").timer().count());
+        assertEquals(1, meterRegistry.get("book.fan-out.leg").tag("leg", "review").timer().count());
+    }
+
+    @Test
+    void testWithCachedRatings_TimesOutQueryWithDeadline() {
+        when(ratingCache.get()).thenReturn(RatingTable.EMPTY);
+
+        ratingEnricher.withCachedRatings(() -> List.<Book>of(), value -> value);
+
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertTrue(definition.getValue().isReadOnly());
+        assertEquals(1, definition.getValue().getTimeout());
+    }
+
+    @Test
+    void testWithRatingsFor_UsesCacheAfterDeadline() {
+        UUID bookId = UUID.randomUUID();
+        List<Book> books = List.of(Book.builder().id(bookId).build());
+        RatingTable cached = RatingTable.of(List.of(new RatingByBookIdDto(bookId, 2.0f)));
+
+        when(ratingLookup.lookup(List.of(bookId))).thenAnswer(invocation -> {
+            Thread.sleep(2_000);
+            return RatingTable.EMPTY;
+        });
+        when(ratingCache.current()).thenReturn(cached);
+
+        ratingEnricher.withRatingsFor(List.of(bookId), () -> books, value -> value);
+
+        assertEquals(2.0f, books.get(0).getRating());
+        assertEquals(1, meterRegistry.get("book.fan-out.deadline-exceeded").counter().count());
+    }
+
+    @Test
+    void testWithCachedRatings_FallsBackToLastKnownRatings() {
+        List<Book> books = List.of(Book.builder().id(UUID.randomUUID()).build());
+        RatingTable lastKnown = RatingTable.of(List.of(new RatingByBookIdDto(books.get(0).getId(), 3.0f)));
+        when(ratingCache.get()).thenThrow(new RestClientException("down"));
+        when(ratingCache.current()).thenReturn(lastKnown);
+
+        List<Book> result = ratingEnricher.withCachedRatings(() -> books, value -> value);
+
+        assertSame(books, result);
+        assertEquals(3.0f, books.get(0).getRating());
+    }
+}
@@ -0,0 +1,86 @@
+package com.adproc8.booku.booklist.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.client.RestClientException;
+
+import com.adproc8.booku.booklist.dto.RatingByBookIdDto;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class RatingLookupTest {
+
+    @Mock
+    private ReviewClient reviewClient;
+
+    @Mock
+    private RatingCache ratingCache;
+
+    private RatingLookup ratingLookup;
+
+    private final UUID bookId1 = UUID.randomUUID();
+    private final UUID bookId2 = UUID.randomUUID();
+    private final UUID bookId3 = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ratingLookup = new RatingLookup(reviewClient, ratingCache, Runnable::run,
+                new SimpleMeterRegistry(), 2, Duration.ofSeconds(1));
+    }
+
+    @Test
+    void testLookup_RequestsOnlyGivenIdsInChunks() {
+        when(reviewClient.getRatings(List.of(bookId1, bookId2)))
+                .thenReturn(Optional.of(List.of(new RatingByBookIdDto(bookId1, 1.0f))));
+        when(reviewClient.getRatings(List.of(bookId3)))
+                .thenReturn(Optional.of(List.of(new RatingByBookIdDto(bookId3, 3.0f))));
+
+        RatingTable ratings = ratingLookup.lookup(List.of(bookId1, bookId2, bookId3));
+
+        assertEquals(1.0f, ratings.get(bookId1));
+        assertFalse(ratings.contains(bookId2));
+        assertEquals(3.0f, ratings.get(bookId3));
+        verifyNoInteractions(ratingCache);
+    }
+
+    @Test
+    void testLookup_FallsBackToCacheOnFailure() {
+        RatingTable cached = RatingTable.of(List.of(new RatingByBookIdDto(bookId1, 2.0f)));
+
+        when(reviewClient.getRatings(anyCollection())).thenThrow(new RestClientException("down"));
+        when(ratingCache.current()).thenReturn(cached);
+
+        assertSame(cached, ratingLookup.lookup(List.of(bookId1)));
+    }
+
+    @Test
+    void testLookup_UsesCacheOnceFilterIsIgnored() {
+        RatingTable cached = RatingTable.of(List.of(new RatingByBookIdDto(bookId1, 2.0f)));
+
+        when(reviewClient.getRatings(anyCollection())).thenReturn(Optional.empty());
+        when(ratingCache.get()).thenReturn(cached);
+
+        assertSame(cached, ratingLookup.lookup(List.of(bookId1)));
+        assertSame(cached, ratingLookup.lookup(List.of(bookId2)));
+        verify(reviewClient, times(1)).getRatings(anyCollection());
+    }
+
+    @Test
+    void testLookup_Empty() {
+        assertEquals(0, ratingLookup.lookup(List.of()).size());
+        verifyNoInteractions(reviewClient);
+    }
+}
@@ -0,0 +1,85 @@
+package com.adproc8.booku.booklist.service;
+
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.web.client.RestClientException;
+
+import com.adproc8.booku.booklist.dto.RatingByBookIdDto;
+import com.adproc8.booku.booklist.repository.BookRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class RatingSyncTest {
+
+    @Mock
+    private RatingCache ratingCache;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private BookChangeBus bookChangeBus;
+
+    private RatingSync ratingSync;
+
+    private final UUID bookId1 = UUID.randomUUID();
+    private final UUID bookId2 = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ratingSync = new RatingSync(ratingCache, bookRepository, bookChangeBus, new SimpleMeterRegistry(), 100);
+    }
+
+    @Test
+    void testSync_WritesOnlyChangedRatings() {
+        when(ratingCache.get())
+                .thenReturn(RatingTable.of(List.of(
+                        new RatingByBookIdDto(bookId1, 4.0f),
+                        new RatingByBookIdDto(bookId2, 3.0f))))
+                .thenReturn(RatingTable.of(List.of(
+                        new RatingByBookIdDto(bookId1, 4.0f),
+                        new RatingByBookIdDto(bookId2, 3.5f))));
+
+        ratingSync.sync();
+        ratingSync.sync();
+
+        verify(bookRepository).updateRatings(Map.of(bookId1, 4.0f, bookId2, 3.0f));
+        verify(bookRepository).updateRatings(Map.of(bookId2, 3.5f));
+    }
+
+    @Test
+    void testSync_RetriesAfterWriteFailure() {
+        RatingTable ratings = RatingTable.of(List.of(new RatingByBookIdDto(bookId1, 4.0f)));
+        when(ratingCache.get()).thenReturn(ratings);
+        when(bookRepository.updateRatings(anyMap()))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(List.of(bookId1));
+
+        ratingSync.sync();
+        ratingSync.sync();
+
+        verify(bookRepository, times(2)).updateRatings(Map.of(bookId1, 4.0f));
+        verify(bookChangeBus, times(1)).publish(List.of(bookId1));
+    }
+
+    @Test
+    void testSync_SkipsWhenReviewServiceUnavailable() {
+        when(ratingCache.get()).thenThrow(new RestClientException("down"));
+
+        ratingSync.sync();
+
+        verifyNoInteractions(bookRepository);
+    }
+}